@@ -0,0 +1,71 @@
+package com.dumall.benchmark;
+
+import com.dumall.common.response.ApiResponse;
+import com.dumall.product.dto.ProductSummary;
+import com.dumall.product.entity.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ApiResponse JSON序列化基准测试
+ * ObjectMapper与Spring MVC默认配置一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseSerializationBenchmark {
+
+    /**
+     * 单次响应包含的商品数量
+     */
+    @Param({"20", "200"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<Product>> fullResponse;
+    private ApiResponse<List<ProductSummary>> summaryResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Product> products = new ArrayList<>(size);
+        List<ProductSummary> summaries = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            Product product = CatalogGenerator.product(id);
+            products.add(product);
+            summaries.add(new ProductSummary(product.getId(), product.getName(), product.getPrice(),
+                    product.getStock(), product.getImageUrl()));
+        }
+        fullResponse = ApiResponse.success(products);
+        summaryResponse = ApiResponse.success(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializeFull() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fullResponse);
+    }
+
+    @Benchmark
+    public byte[] serializeSummary() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaryResponse);
+    }
+}
@@ -0,0 +1,113 @@
+package com.dumall.benchmark;
+
+import com.dumall.product.entity.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 基准测试商品目录生成器
+ * 按商品ID确定性地生成商品（同一ID每次生成的内容相同），分类、品牌和价格分布参照种子数据
+ */
+public final class CatalogGenerator {
+
+    /**
+     * 分类
+     */
+    static final String[] CATEGORIES = {"数码产品", "服装配饰", "家居用品", "图书文具", "美妆护肤", "运动户外"};
+
+    /**
+     * 搜索基准使用的关键词（中文、英文、品牌、组合词）
+     */
+    static final String[] KEYWORDS = {"手机", "蓝牙耳机", "pro", "华为", "运动鞋", "保温杯", "Nike 跑步", "面霜"};
+
+    private static final String[][] BRANDS = {
+            {"Apple", "华为", "小米", "Sony", "罗技", "联想"},
+            {"优衣库", "ZARA", "海澜之家", "Levi's", "Coach", "李宁"},
+            {"宜家", "无印良品", "苏泊尔", "小熊", "膳魔师", "公牛"},
+            {"晨光", "得力", "Staedtler", "中信出版", "人民文学", "Moleskine"},
+            {"兰蔻", "雅诗兰黛", "SK-II", "资生堂", "欧莱雅", "珀莱雅"},
+            {"Nike", "Adidas", "迪卡侬", "安踏", "始祖鸟", "骆驼"}
+    };
+
+    private static final String[][] NOUNS = {
+            {"手机", "笔记本电脑", "蓝牙耳机", "平板电脑", "无线鼠标", "机械键盘", "智能手表"},
+            {"T恤", "牛仔裤", "连衣裙", "羽绒服", "双肩包", "围巾", "运动鞋"},
+            {"保温杯", "台灯", "收纳箱", "电饭煲", "抱枕", "四件套", "插线板"},
+            {"中性笔", "笔记本", "铅笔", "长篇小说", "文件夹", "马克笔", "字典"},
+            {"面霜", "精华液", "口红", "防晒霜", "洗面奶", "面膜", "香水"},
+            {"跑步鞋", "帐篷", "登山杖", "瑜伽垫", "篮球", "冲锋衣", "骑行头盔"}
+    };
+
+    private static final String[] SERIES = {"Pro", "Max", "Lite", "Plus", "2024款", "经典款", "旗舰版", "青春版"};
+
+    private static final int[][] PRICE_RANGES = {
+            {99, 12999}, {29, 2999}, {19, 1999}, {5, 199}, {49, 2999}, {29, 4999}
+    };
+
+    private static final String DESCRIPTION =
+            "品质保证，全国联保，支持七天无理由退换。精选材质，做工精细，适合日常使用与送礼。" +
+            "High quality product with fast delivery and reliable after-sales service. ";
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final int INSERT_BATCH_SIZE = 5000;
+
+    private CatalogGenerator() {
+    }
+
+    /**
+     * 生成指定ID的商品
+     * @param id 商品ID
+     * @return 商品对象
+     */
+    public static Product product(long id) {
+        SplittableRandom random = new SplittableRandom(id * 0x9E3779B97F4A7C15L);
+        int category = random.nextInt(CATEGORIES.length);
+        String brand = BRANDS[category][random.nextInt(BRANDS[category].length)];
+        String noun = NOUNS[category][random.nextInt(NOUNS[category].length)];
+        String series = SERIES[random.nextInt(SERIES.length)];
+
+        int[] range = PRICE_RANGES[category];
+        BigDecimal price = BigDecimal.valueOf(range[0] + random.nextDouble() * (range[1] - range[0]))
+                .setScale(2, RoundingMode.HALF_UP);
+        // 约10%的商品无库存
+        int stock = random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(1000);
+        String description = DESCRIPTION.repeat(1 + random.nextInt(3));
+        LocalDateTime createdAt = BASE_TIME.plusMinutes(id);
+
+        return new Product(id, brand + " " + noun + " " + series + " " + id, description, price, stock,
+                CATEGORIES[category], "https://images.example.com/products/" + id + ".jpg", createdAt, createdAt);
+    }
+
+    /**
+     * 通过JDBC批量写入商品（ID为1..size），并把主键序列推进到目录之后
+     * @param jdbcTemplate JDBC模板
+     * @param size 商品数量
+     */
+    public static void populate(JdbcTemplate jdbcTemplate, int size) {
+        String sql = "INSERT INTO products (id, name, description, price, stock, category, image_url, " +
+                     "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= size; id++) {
+            Product p = product(id);
+            batch.add(new Object[]{p.getId(), p.getName(), p.getDescription(), p.getPrice(), p.getStock(),
+                    p.getCategory(), p.getImageUrl(), Timestamp.valueOf(p.getCreatedAt()),
+                    Timestamp.valueOf(p.getUpdatedAt())});
+            if (batch.size() == INSERT_BATCH_SIZE) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, batch);
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE products_seq RESTART WITH " + (size + 1));
+    }
+}
@@ -0,0 +1,67 @@
+package com.dumall.benchmark;
+
+import com.dumall.product.ProductServiceApplication;
+import com.dumall.product.facet.ProductFacetIndex;
+import com.dumall.product.repository.ProductRepository;
+import com.dumall.product.search.ProductSearchIndex;
+import com.dumall.product.search.ProductSuggestIndex;
+import com.dumall.product.service.ProductService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 商品服务基准测试状态
+ * 以非Web方式启动商品服务的Spring上下文（独立的H2内存库，不加载种子数据），
+ * 写入catalogSize个生成的商品后重建内存索引
+ */
+@State(Scope.Benchmark)
+public class ProductCatalogState {
+
+    /**
+     * 目录规模，通过 -p catalogSize=10000,100000,1000000 指定
+     */
+    @Param({"10000"})
+    public int catalogSize;
+
+    ConfigurableApplicationContext context;
+    ProductService productService;
+    ProductRepository productRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 以命令行参数传入，优先级高于商品服务的application.properties
+        context = new SpringApplicationBuilder(ProductServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+                                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.sql.init.mode=never",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN");
+
+        CatalogGenerator.populate(context.getBean(JdbcTemplate.class), catalogSize);
+        context.getBean(ProductSearchIndex.class).rebuild();
+        context.getBean(ProductSuggestIndex.class).rebuild();
+        context.getBean(ProductFacetIndex.class).rebuild();
+
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.dumall.benchmark;
+
+import com.dumall.product.dto.CursorPage;
+import com.dumall.product.dto.ProductSort;
+import com.dumall.product.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductService热点路径基准测试
+ * 每个被测路径同时给出直接查询数据库的对照组（*Repository），用于量化缓存和内存索引带来的收益
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class ProductServiceBenchmark {
+
+    /**
+     * 每个线程轮换查询参数，避免只测到单个热点键
+     */
+    @State(Scope.Thread)
+    public static class Queries {
+
+        private final SplittableRandom random = new SplittableRandom(42);
+        private int keyword;
+        private int category;
+
+        String nextKeyword() {
+            keyword = (keyword + 1) % CatalogGenerator.KEYWORDS.length;
+            return CatalogGenerator.KEYWORDS[keyword];
+        }
+
+        String nextCategory() {
+            category = (category + 1) % CatalogGenerator.CATEGORIES.length;
+            return CatalogGenerator.CATEGORIES[category];
+        }
+
+        /**
+         * 宽度为10元的价格区间
+         */
+        BigDecimal nextMinPrice() {
+            return BigDecimal.valueOf(10 + random.nextInt(1000));
+        }
+    }
+
+    @Benchmark
+    public List<Product> searchProducts(ProductCatalogState state, Queries queries) {
+        return state.productService.searchProducts(queries.nextKeyword(), 20);
+    }
+
+    @Benchmark
+    public List<Product> searchProductsRepository(ProductCatalogState state, Queries queries) {
+        return state.productRepository.findByNameContainingIgnoreCase(queries.nextKeyword());
+    }
+
+    @Benchmark
+    public List<Product> getProductsByCategory(ProductCatalogState state, Queries queries) {
+        return state.productService.getProductsByCategory(queries.nextCategory());
+    }
+
+    @Benchmark
+    public List<Product> getProductsByCategoryRepository(ProductCatalogState state, Queries queries) {
+        return state.productRepository.findByCategory(queries.nextCategory());
+    }
+
+    @Benchmark
+    public CursorPage<Product> getProductPageByCategory(ProductCatalogState state, Queries queries) {
+        return state.productService.getProductPageByCategory(queries.nextCategory(), null, null, 20,
+                ProductSort.PRICE_ASC);
+    }
+
+    @Benchmark
+    public List<Product> getProductsByPriceRange(ProductCatalogState state, Queries queries) {
+        BigDecimal minPrice = queries.nextMinPrice();
+        return state.productService.getProductsByPriceRange(minPrice, minPrice.add(BigDecimal.TEN));
+    }
+}
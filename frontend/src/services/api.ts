@@ -68,6 +68,11 @@ export const productApi = {
         return productApiClient.get(`/${id}`);
     },
 
+    // 批量获取商品（按请求顺序返回，并列出不存在的ID）
+    getProductsByIds: (ids: number[]): Promise<ApiResponse<{ products: Product[]; missingIds: number[] }>> => {
+        return productApiClient.get('/batch', { params: { ids: ids.join(',') } });
+    },
+
     // 创建商品
     createProduct: (product: Omit<Product, 'id'>): Promise<ApiResponse<Product>> => {
         return productApiClient.post('', product);
@@ -88,6 +93,27 @@ export const productApi = {
         return productApiClient.get(`/category/${encodeURIComponent(category)}`);
     },
 
+    // 组合条件筛选商品（游标分页，下一页携带 after/afterPrice）
+    filterProducts: (params: {
+        category?: string;
+        minPrice?: number;
+        maxPrice?: number;
+        inStock?: boolean;
+        keyword?: string;
+        sort?: 'ID' | 'PRICE_ASC' | 'PRICE_DESC';
+        after?: number;
+        afterPrice?: number;
+        limit?: number;
+        view?: 'FULL' | 'SUMMARY';
+    }): Promise<ApiResponse<{ items: Product[]; limit: number; hasMore: boolean; nextAfter?: number; nextAfterPrice?: number }>> => {
+        return productApiClient.get('/filter', { params });
+    },
+
+    // 商品名称联想
+    suggestProducts: (prefix: string, limit = 10): Promise<ApiResponse<{ id: number; name: string }[]>> => {
+        return productApiClient.get('/suggest', { params: { prefix, limit } });
+    },
+
     // 搜索商品
     searchProducts: (keyword: string): Promise<ApiResponse<Product[]>> => {
         return productApiClient.get(`/search?keyword=${encodeURIComponent(keyword)}`);
@@ -0,0 +1,126 @@
+package com.dumall.inventory.concurrency;
+
+import com.dumall.inventory.dto.ProductConflictStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发冲突统计
+ * 按商品累计台账CAS重试和数据库乐观锁冲突次数；全局合计注册为Micrometer计数器
+ * （inventory.conflicts，source=ledger/database），按商品的明细通过接口按冲突次数排序查询
+ */
+@Component
+public class ConflictMetrics {
+
+    private final Map<Long, ProductConflicts> products = new ConcurrentHashMap<>();
+
+    private final LongAdder ledgerRetries = new LongAdder();
+    private final LongAdder databaseConflicts = new LongAdder();
+
+    public ConflictMetrics(MeterRegistry meterRegistry) {
+        FunctionCounter.builder("inventory.conflicts", ledgerRetries, LongAdder::sum)
+                .tag("source", "ledger")
+                .description("库存台账CAS重试次数")
+                .register(meterRegistry);
+        FunctionCounter.builder("inventory.conflicts", databaseConflicts, LongAdder::sum)
+                .tag("source", "database")
+                .description("库存记录乐观锁冲突次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 记录一次台账变更
+     * @param productId 商品ID
+     * @param retries 本次变更的CAS重试次数
+     */
+    public void ledgerUpdate(Long productId, int retries) {
+        ProductConflicts conflicts = of(productId);
+        conflicts.ledgerUpdates.increment();
+        if (retries > 0) {
+            conflicts.ledgerRetries.add(retries);
+            ledgerRetries.add(retries);
+        }
+    }
+
+    /**
+     * 记录一次数据库更新尝试
+     * @param productId 商品ID
+     * @param conflicted 是否发生乐观锁冲突
+     */
+    public void databaseAttempt(Long productId, boolean conflicted) {
+        ProductConflicts conflicts = of(productId);
+        conflicts.databaseAttempts.increment();
+        if (conflicted) {
+            conflicts.databaseConflicts.increment();
+            databaseConflicts.increment();
+        }
+    }
+
+    /**
+     * 重试次数用尽仍然冲突
+     * @param productId 商品ID
+     */
+    public void databaseExhausted(Long productId) {
+        of(productId).databaseExhausted.increment();
+    }
+
+    /**
+     * 冲突最多的商品
+     * @param limit 最多返回数量
+     * @return 按冲突次数（CAS重试 + 乐观锁冲突）降序
+     */
+    public List<ProductConflictStats> top(int limit) {
+        return products.entrySet().stream()
+                .map(entry -> entry.getValue().toStats(entry.getKey()))
+                .filter(stats -> stats.getLedgerRetries() + stats.getDatabaseConflicts() > 0)
+                .sorted(Comparator.comparingLong(
+                        (ProductConflictStats stats) -> stats.getLedgerRetries() + stats.getDatabaseConflicts())
+                        .reversed())
+                .limit(Math.max(limit, 0))
+                .toList();
+    }
+
+    /**
+     * 库存记录删除后清除统计
+     * @param productId 商品ID
+     */
+    public void remove(Long productId) {
+        products.remove(productId);
+    }
+
+    private ProductConflicts of(Long productId) {
+        ProductConflicts conflicts = products.get(productId);
+        if (conflicts == null) {
+            conflicts = products.computeIfAbsent(productId, id -> new ProductConflicts());
+        }
+        return conflicts;
+    }
+
+    private static final class ProductConflicts {
+
+        final LongAdder ledgerUpdates = new LongAdder();
+        final LongAdder ledgerRetries = new LongAdder();
+        final LongAdder databaseAttempts = new LongAdder();
+        final LongAdder databaseConflicts = new LongAdder();
+        final LongAdder databaseExhausted = new LongAdder();
+
+        ProductConflictStats toStats(Long productId) {
+            long updates = ledgerUpdates.sum();
+            long retries = ledgerRetries.sum();
+            long attempts = databaseAttempts.sum();
+            long conflicts = databaseConflicts.sum();
+            return new ProductConflictStats(productId, updates, retries,
+                    updates == 0 ? 0.0 : (double) retries / updates,
+                    attempts, conflicts,
+                    attempts == 0 ? 0.0 : (double) conflicts / attempts,
+                    databaseExhausted.sum());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.dumall.inventory.concurrency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 乐观锁重试
+ * 每次尝试在独立事务中执行，版本冲突时按指数退避加随机抖动等待后重试，次数有上限；
+ * 已处于外层事务中时直接执行（冲突会使外层事务回滚，只能由外层整体重试）
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictMetrics conflictMetrics;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   ConflictMetrics conflictMetrics,
+                                   @Value("${inventory.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${inventory.optimistic.backoff-millis:10}") long backoffMillis,
+                                   @Value("${inventory.optimistic.max-backoff-millis:200}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conflictMetrics = conflictMetrics;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * 执行库存记录更新
+     * @param productId 商品ID（用于冲突统计）
+     * @param action 更新操作，每次重试都会重新执行（需要重新读取记录）
+     * @return 操作结果
+     */
+    public <T> T execute(Long productId, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = transactionTemplate.execute(status -> action.get());
+                conflictMetrics.databaseAttempt(productId, false);
+                return result;
+            } catch (OptimisticLockingFailureException e) {
+                conflictMetrics.databaseAttempt(productId, true);
+                if (attempt >= maxAttempts) {
+                    conflictMetrics.databaseExhausted(productId);
+                    log.warn("库存记录并发更新冲突，重试 {} 次后放弃: productId={}", attempt, productId);
+                    throw new RuntimeException("库存记录并发更新冲突，请稍后重试");
+                }
+                log.debug("库存记录并发更新冲突，第 {} 次重试: productId={}", attempt, productId);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        // 在[ceiling/2, ceiling]内随机，避免冲突双方同时重试
+        long sleep = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("库存记录更新被中断");
+        }
+    }
+}
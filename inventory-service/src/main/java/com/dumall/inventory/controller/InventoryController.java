@@ -1,17 +1,25 @@
 package com.dumall.inventory.controller;
 
 import com.dumall.common.response.ApiResponse;
+import com.dumall.inventory.dto.BatchReserveRequest;
 import com.dumall.inventory.dto.InventoryRequest;
+import com.dumall.inventory.dto.ProductConflictStats;
 import com.dumall.inventory.dto.StockAdjustmentRequest;
+import com.dumall.inventory.dto.TransactionPage;
 import com.dumall.inventory.entity.Inventory;
 import com.dumall.inventory.entity.InventoryTransaction;
 import com.dumall.inventory.service.InventoryService;
 import com.dumall.inventory.service.InventoryStatistics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -23,6 +31,11 @@ import java.util.List;
 @RequiredArgsConstructor
 public class InventoryController {
 
+    /**
+     * 幂等键请求头：重试时携带同一值，返回首次的交易记录而不重复变更库存
+     */
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final InventoryService inventoryService;
 
     /**
@@ -129,8 +142,13 @@ public class InventoryController {
      * 库存调整
      */
     @PostMapping("/adjust")
-    public ApiResponse<InventoryTransaction> adjustStock(@Valid @RequestBody StockAdjustmentRequest request) {
+    public ApiResponse<InventoryTransaction> adjustStock(
+            @Valid @RequestBody StockAdjustmentRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("库存调整: productId={}, type={}", request.getProductId(), request.getTransactionType());
+        if (idempotencyKey != null) {
+            request.setIdempotencyKey(idempotencyKey);
+        }
         InventoryTransaction transaction = inventoryService.adjustStock(request);
         return ApiResponse.success(transaction);
     }
@@ -142,12 +160,34 @@ public class InventoryController {
     public ApiResponse<InventoryTransaction> reserveStock(
             @RequestParam Long productId,
             @RequestParam Integer quantity,
-            @RequestParam String referenceId) {
+            @RequestParam String referenceId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("预留库存: productId={}, quantity={}, referenceId={}", productId, quantity, referenceId);
-        InventoryTransaction transaction = inventoryService.reserveStock(productId, quantity, referenceId);
+        InventoryTransaction transaction = inventoryService.reserveStock(productId, quantity, referenceId,
+                idempotencyKey);
         return ApiResponse.success(transaction);
     }
 
+    /**
+     * 批量预留库存（整单全部成功或全部失败）
+     */
+    @PostMapping("/reserve/batch")
+    public ApiResponse<List<InventoryTransaction>> reserveStockBatch(@Valid @RequestBody BatchReserveRequest request) {
+        log.info("批量预留库存: referenceId={}, items={}", request.getReferenceId(), request.getItems().size());
+        List<InventoryTransaction> transactions = inventoryService.reserveStockBatch(request);
+        return ApiResponse.success(transactions);
+    }
+
+    /**
+     * 确认预留（转为出库）
+     */
+    @PostMapping("/reservations/{referenceId}/confirm")
+    public ApiResponse<List<InventoryTransaction>> confirmReservation(@PathVariable String referenceId) {
+        log.info("确认预留: referenceId={}", referenceId);
+        List<InventoryTransaction> transactions = inventoryService.confirmReservation(referenceId);
+        return ApiResponse.success(transactions);
+    }
+
     /**
      * 释放预留库存
      */
@@ -155,9 +195,11 @@ public class InventoryController {
     public ApiResponse<InventoryTransaction> releaseStock(
             @RequestParam Long productId,
             @RequestParam Integer quantity,
-            @RequestParam String referenceId) {
+            @RequestParam String referenceId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("释放预留库存: productId={}, quantity={}, referenceId={}", productId, quantity, referenceId);
-        InventoryTransaction transaction = inventoryService.releaseStock(productId, quantity, referenceId);
+        InventoryTransaction transaction = inventoryService.releaseStock(productId, quantity, referenceId,
+                idempotencyKey);
         return ApiResponse.success(transaction);
     }
 
@@ -168,9 +210,11 @@ public class InventoryController {
     public ApiResponse<InventoryTransaction> inboundStock(
             @RequestParam Long productId,
             @RequestParam Integer quantity,
-            @RequestParam String referenceId) {
+            @RequestParam String referenceId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("入库: productId={}, quantity={}, referenceId={}", productId, quantity, referenceId);
-        InventoryTransaction transaction = inventoryService.inboundStock(productId, quantity, referenceId);
+        InventoryTransaction transaction = inventoryService.inboundStock(productId, quantity, referenceId,
+                idempotencyKey);
         return ApiResponse.success(transaction);
     }
 
@@ -181,12 +225,35 @@ public class InventoryController {
     public ApiResponse<InventoryTransaction> outboundStock(
             @RequestParam Long productId,
             @RequestParam Integer quantity,
-            @RequestParam String referenceId) {
+            @RequestParam String referenceId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("出库: productId={}, quantity={}, referenceId={}", productId, quantity, referenceId);
-        InventoryTransaction transaction = inventoryService.outboundStock(productId, quantity, referenceId);
+        InventoryTransaction transaction = inventoryService.outboundStock(productId, quantity, referenceId,
+                idempotencyKey);
         return ApiResponse.success(transaction);
     }
 
+    /**
+     * 开启热点商品分片模式
+     */
+    @PostMapping("/hot-sku/{productId}")
+    public ApiResponse<Inventory> enableHotSku(@PathVariable Long productId,
+                                               @RequestParam(required = false) Integer stripes) {
+        log.info("开启热点商品分片模式: productId={}, stripes={}", productId, stripes);
+        Inventory inventory = inventoryService.enableHotSku(productId, stripes);
+        return ApiResponse.success(inventory);
+    }
+
+    /**
+     * 关闭热点商品分片模式
+     */
+    @DeleteMapping("/hot-sku/{productId}")
+    public ApiResponse<Inventory> disableHotSku(@PathVariable Long productId) {
+        log.info("关闭热点商品分片模式: productId={}", productId);
+        Inventory inventory = inventoryService.disableHotSku(productId);
+        return ApiResponse.success(inventory);
+    }
+
     /**
      * 获取商品交易记录
      */
@@ -207,6 +274,56 @@ public class InventoryController {
         return ApiResponse.success(transactions);
     }
 
+    /**
+     * 游标分页获取交易记录（按创建时间倒序，可限定时间窗口[from, to)）
+     */
+    @GetMapping("/transactions/page")
+    public ApiResponse<TransactionPage> getTransactionPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("游标分页获取交易记录: from={}, to={}, beforeId={}, limit={}", from, to, beforeId, limit);
+        TransactionPage page = inventoryService.getTransactionPage(null, from, to, beforeCreatedAt, beforeId, limit);
+        return ApiResponse.success(page);
+    }
+
+    /**
+     * 游标分页获取商品交易记录（按创建时间倒序，可限定时间窗口[from, to)）
+     */
+    @GetMapping("/transactions/product/{productId}/page")
+    public ApiResponse<TransactionPage> getProductTransactionPage(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime beforeCreatedAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int limit) {
+        log.info("游标分页获取商品交易记录: productId={}, from={}, to={}, beforeId={}, limit={}",
+                productId, from, to, beforeId, limit);
+        TransactionPage page = inventoryService.getTransactionPage(productId, from, to,
+                beforeCreatedAt, beforeId, limit);
+        return ApiResponse.success(page);
+    }
+
+    /**
+     * 以NDJSON流式导出交易记录（按创建时间顺序，可限定商品和时间窗口[from, to)）
+     */
+    @GetMapping(value = "/transactions/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("流式导出交易记录: productId={}, from={}, to={}", productId, from, to);
+        StreamingResponseBody body = out -> inventoryService.exportTransactions(productId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * 删除库存记录
      */
@@ -227,6 +344,16 @@ public class InventoryController {
         return ApiResponse.success(statistics);
     }
 
+    /**
+     * 获取并发冲突最多的商品
+     */
+    @GetMapping("/conflicts")
+    public ApiResponse<List<ProductConflictStats>> getConflictStats(@RequestParam(defaultValue = "20") int limit) {
+        log.info("获取并发冲突统计: limit={}", limit);
+        List<ProductConflictStats> stats = inventoryService.getConflictStats(limit);
+        return ApiResponse.success(stats);
+    }
+
     /**
      * 更新库存状态
      */
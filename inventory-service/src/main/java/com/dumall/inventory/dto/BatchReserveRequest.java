@@ -0,0 +1,40 @@
+package com.dumall.inventory.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量预留库存请求DTO（整单预留，全部成功或全部失败）
+ */
+@Data
+public class BatchReserveRequest {
+
+    @NotBlank(message = "参考ID不能为空")
+    private String referenceId;
+
+    @NotEmpty(message = "预留明细不能为空")
+    @Size(max = 200, message = "单次最多预留200个商品")
+    @Valid
+    private List<Item> items;
+
+    /**
+     * 预留明细
+     */
+    @Data
+    public static class Item {
+
+        @NotNull(message = "商品ID不能为空")
+        private Long productId;
+
+        @NotNull(message = "数量不能为空")
+        @Min(value = 1, message = "数量必须大于0")
+        private Integer quantity;
+    }
+}
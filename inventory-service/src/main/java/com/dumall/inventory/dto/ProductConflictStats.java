@@ -0,0 +1,51 @@
+package com.dumall.inventory.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 单个商品的并发冲突统计
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductConflictStats {
+
+    private Long productId;
+
+    /**
+     * 台账变更次数
+     */
+    private long ledgerUpdates;
+
+    /**
+     * 台账CAS重试次数
+     */
+    private long ledgerRetries;
+
+    /**
+     * 平均每次台账变更的CAS重试次数
+     */
+    private double ledgerRetryRate;
+
+    /**
+     * 数据库更新尝试次数（含重试）
+     */
+    private long databaseAttempts;
+
+    /**
+     * 乐观锁冲突次数
+     */
+    private long databaseConflicts;
+
+    /**
+     * 乐观锁冲突比例
+     */
+    private double databaseConflictRate;
+
+    /**
+     * 重试用尽仍失败的次数
+     */
+    private long databaseExhausted;
+}
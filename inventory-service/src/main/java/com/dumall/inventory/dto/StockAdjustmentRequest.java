@@ -3,6 +3,7 @@ package com.dumall.inventory.dto;
 import com.dumall.inventory.entity.TransactionType;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 /**
@@ -26,4 +27,7 @@ public class StockAdjustmentRequest {
     private Long operatorId;
     private String operatorName;
     private String notes;
+
+    @Size(max = 64, message = "幂等键长度不能超过64")
+    private String idempotencyKey; // 同一幂等键的重复请求返回首次的交易记录，不再重复变更库存
 } 
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.dumall.inventory.dto;
+
+import com.dumall.inventory.entity.InventoryTransaction;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 交易记录游标分页响应DTO（按创建时间倒序）
+ * 下一页请求携带 beforeCreatedAt=nextBeforeCreatedAt、beforeId=nextBeforeId
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPage {
+
+    private List<InventoryTransaction> items;
+    private Integer limit;
+    private Boolean hasMore;
+    private LocalDateTime nextBeforeCreatedAt; // 下一页游标：本页最后一条记录的创建时间
+    private Long nextBeforeId; // 下一页游标：本页最后一条记录的ID
+}
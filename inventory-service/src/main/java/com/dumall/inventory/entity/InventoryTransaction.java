@@ -10,9 +10,15 @@ import java.time.LocalDateTime;
 
 /**
  * 库存交易记录实体
+ * 交易历史按(创建时间, ID)游标分页，索引以ID结尾使同一时刻的多条记录也能按索引顺序续读
  */
 @Entity
-@Table(name = "inventory_transactions")
+@Table(name = "inventory_transactions", indexes = {
+        @Index(name = "idx_inventory_transactions_product_created", columnList = "product_id, created_at, id"),
+        @Index(name = "idx_inventory_transactions_created", columnList = "created_at, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_inventory_transactions_idempotency_key", columnNames = "idempotency_key")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,6 +63,9 @@ public class InventoryTransaction {
     @Column(name = "notes")
     private String notes;
 
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey; // 客户端幂等键，重复请求返回本记录
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
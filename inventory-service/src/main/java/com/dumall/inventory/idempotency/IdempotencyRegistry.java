@@ -0,0 +1,172 @@
+package com.dumall.inventory.idempotency;
+
+import com.dumall.inventory.dto.StockAdjustmentRequest;
+import com.dumall.inventory.entity.InventoryTransaction;
+import com.dumall.inventory.entity.TransactionType;
+import com.dumall.inventory.ledger.StockLedgerFlusher;
+import com.dumall.inventory.repository.InventoryTransactionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 库存变更幂等键索引
+ * 内存中保存最近的幂等键及其交易记录（条数有上限，超出后按登记顺序淘汰已完成的条目）；同一幂等键的并发请求
+ * 只执行一次，其余等待并返回同一结果。内存未命中时先查尚未回写的交易记录，再按唯一索引查询数据库
+ * （回写提交后才从待回写记录中移除，两处检查之间不会漏掉），
+ * inventory_transactions.idempotency_key上的唯一约束保证同一幂等键最多一条交易记录
+ */
+@Slf4j
+@Component
+public class IdempotencyRegistry {
+
+    public static final int MAX_KEY_LENGTH = 64;
+
+    private final InventoryTransactionRepository transactionRepository;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final int maxKeys;
+
+    private final Map<String, CompletableFuture<InventoryTransaction>> index = new ConcurrentHashMap<>();
+
+    /**
+     * 登记顺序，用于按条数淘汰（与index中的条目一一对应，读写都持有自身的锁）
+     */
+    private final Set<String> order = new LinkedHashSet<>();
+
+    private final Counter memoryHits;
+    private final Counter pendingHits;
+    private final Counter databaseHits;
+
+    public IdempotencyRegistry(InventoryTransactionRepository transactionRepository,
+                               StockLedgerFlusher stockLedgerFlusher,
+                               MeterRegistry meterRegistry,
+                               @Value("${inventory.idempotency.max-keys:100000}") int maxKeys) {
+        this.transactionRepository = transactionRepository;
+        this.stockLedgerFlusher = stockLedgerFlusher;
+        this.maxKeys = maxKeys;
+        this.memoryHits = Counter.builder("inventory.idempotency.replays")
+                .tag("source", "memory")
+                .description("幂等键命中内存索引、直接返回原交易记录的次数")
+                .register(meterRegistry);
+        this.pendingHits = Counter.builder("inventory.idempotency.replays")
+                .tag("source", "pending")
+                .description("幂等键命中尚未回写的交易记录、直接返回原交易记录的次数")
+                .register(meterRegistry);
+        this.databaseHits = Counter.builder("inventory.idempotency.replays")
+                .tag("source", "database")
+                .description("幂等键命中数据库、直接返回原交易记录的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按幂等键执行库存变更（没有幂等键时直接执行）
+     * @param request 库存调整请求
+     * @param action 实际执行的变更
+     * @return 本次或首次执行产生的交易记录
+     */
+    public InventoryTransaction execute(StockAdjustmentRequest request, Supplier<InventoryTransaction> action) {
+        String key = request.getIdempotencyKey();
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("幂等键长度不能超过" + MAX_KEY_LENGTH);
+        }
+        CompletableFuture<InventoryTransaction> claim = new CompletableFuture<>();
+        CompletableFuture<InventoryTransaction> existing = index.putIfAbsent(key, claim);
+        if (existing != null) {
+            InventoryTransaction original = await(existing);
+            memoryHits.increment();
+            return verified(key, request, original);
+        }
+        register(key);
+        try {
+            InventoryTransaction pending = stockLedgerFlusher.pendingTransaction(key);
+            InventoryTransaction stored = pending != null ? null
+                    : transactionRepository.findByIdempotencyKey(key).orElse(null);
+            InventoryTransaction transaction;
+            if (pending != null) {
+                pendingHits.increment();
+                transaction = verified(key, request, pending);
+            } else if (stored != null) {
+                databaseHits.increment();
+                transaction = verified(key, request, stored);
+            } else {
+                transaction = action.get();
+            }
+            claim.complete(transaction);
+            return transaction;
+        } catch (RuntimeException e) {
+            // 执行失败没有产生变更，移除后允许用同一幂等键重试
+            synchronized (order) {
+                if (index.remove(key, claim)) {
+                    order.remove(key);
+                }
+            }
+            claim.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void register(String key) {
+        synchronized (order) {
+            order.add(key);
+            if (order.size() <= maxKeys) {
+                return;
+            }
+            // 淘汰最早登记且已完成的条目；仍在执行中的保留原位，避免并发的重复请求再次执行
+            Iterator<String> eldest = order.iterator();
+            while (eldest.hasNext()) {
+                String candidate = eldest.next();
+                CompletableFuture<InventoryTransaction> result = index.get(candidate);
+                if (result == null || result.isDone()) {
+                    eldest.remove();
+                    if (result != null) {
+                        index.remove(candidate, result);
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 同一幂等键必须对应同一商品、交易类型和数量（释放的数量以登记的预留为上限，可能小于请求数量）
+     */
+    private static InventoryTransaction verified(String key, StockAdjustmentRequest request,
+                                                 InventoryTransaction original) {
+        boolean sameQuantity = request.getTransactionType() == TransactionType.RELEASE
+                ? original.getQuantity() <= request.getQuantity()
+                : Objects.equals(original.getQuantity(), request.getQuantity());
+        if (!Objects.equals(original.getProductId(), request.getProductId())
+                || original.getTransactionType() != request.getTransactionType()
+                || !sameQuantity) {
+            throw new RuntimeException("幂等键已被其他请求使用: " + key);
+        }
+        log.info("幂等键重复请求，返回原交易记录: key={}", key);
+        return original;
+    }
+
+    private static InventoryTransaction await(CompletableFuture<InventoryTransaction> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.dumall.inventory.journal;
+
+import com.dumall.inventory.entity.InventoryTransaction;
+import com.dumall.inventory.ledger.StockLedger;
+import com.dumall.inventory.ledger.StockLedgerFlusher;
+import com.dumall.inventory.ledger.StockLevel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 库存变更日志恢复与快照
+ * 台账加载数据库记录后，用快照加日志回放出的水位覆盖台账并回写inventory（数据库行视为可重建的物化视图）；
+ * 定期及停止时把台账水位写成快照，回放只需从快照记录的段开始（停止时先收回热点商品分片中未分配的租约）。
+ * 加载与恢复在所有单例创建完成后、Web服务开始接收请求之前完成：恢复前到达的变更会按数据库行懒加载账户、
+ * 从0开始取序号，随后被回放的水位覆盖而丢失。
+ * 日志中的审计记录是交易记录的持久副本，数据库不保留交易记录时（内存库每次启动重建）启动时按日志重新写入
+ */
+@Slf4j
+@Component
+public class JournalCheckpointer implements SmartInitializingSingleton {
+
+    private static final int RESTORE_BATCH_SIZE = 500;
+
+    private final TransactionJournal transactionJournal;
+    private final StockLedger stockLedger;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final boolean restoreTransactions;
+
+    public JournalCheckpointer(TransactionJournal transactionJournal,
+                               StockLedger stockLedger,
+                               StockLedgerFlusher stockLedgerFlusher,
+                               @Value("${inventory.journal.restore-transactions:true}") boolean restoreTransactions) {
+        this.transactionJournal = transactionJournal;
+        this.stockLedger = stockLedger;
+        this.stockLedgerFlusher = stockLedgerFlusher;
+        this.restoreTransactions = restoreTransactions;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        stockLedger.load();
+        recover();
+        if (restoreTransactions) {
+            restoreTransactions();
+        }
+    }
+
+    /**
+     * 按写入顺序把日志中的审计记录批量写回交易记录表
+     */
+    private void restoreTransactions() {
+        List<InventoryTransaction> batch = new ArrayList<>(RESTORE_BATCH_SIZE);
+        int restored = transactionJournal.replayTransactions(transaction -> {
+            batch.add(transaction);
+            if (batch.size() >= RESTORE_BATCH_SIZE) {
+                stockLedgerFlusher.restore(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            stockLedgerFlusher.restore(batch);
+        }
+        log.info("从库存变更日志重建 {} 条交易记录", restored);
+    }
+
+    private void recover() {
+        long maxSequence = 0;
+        int restored = 0;
+        for (JournalEntry entry : transactionJournal.recoveredEntries()) {
+            maxSequence = Math.max(maxSequence, entry.sequence());
+            StockLevel level = new StockLevel(entry.currentStock(), entry.reservedStock(), entry.sequence());
+            if (stockLedger.restore(entry.productId(), level)) {
+                stockLedgerFlusher.markDirty(entry.productId());
+                restored++;
+            } else {
+                log.warn("库存变更日志中的商品不存在库存记录，跳过: productId={}", entry.productId());
+            }
+        }
+        stockLedger.advanceSequence(maxSequence);
+        log.info("从库存变更日志恢复 {} 个商品的库存水位", restored);
+    }
+
+    /**
+     * 写入快照
+     */
+    @Scheduled(initialDelayString = "${inventory.journal.snapshot-interval-millis:600000}",
+               fixedDelayString = "${inventory.journal.snapshot-interval-millis:600000}")
+    public synchronized void checkpoint() {
+        // 先确定回放起始段再读取水位：之后的变更要么已包含在水位中，要么在起始段之后的日志里（按序号幂等）
+        long startSegment = transactionJournal.currentSegment();
+        Map<Long, StockLevel> levels = stockLedger.levels();
+        List<JournalEntry> entries = new ArrayList<>(levels.size());
+        levels.forEach((productId, level) -> entries.add(new JournalEntry(level.sequence(), productId,
+                JournalEntry.SNAPSHOT, 0, level.currentStock(), level.reservedStock())));
+        transactionJournal.writeSnapshot(startSegment, entries);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stockLedger.reclaimAll();
+        checkpoint();
+    }
+}
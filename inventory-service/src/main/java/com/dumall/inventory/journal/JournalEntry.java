@@ -0,0 +1,39 @@
+package com.dumall.inventory.journal;
+
+/**
+ * 日志记录：一次台账变更后的完整水位（回放时同一商品以序号最大的记录为准，可重复回放）
+ * @param sequence 台账变更序号
+ * @param productId 商品ID
+ * @param kind 变更类型（TransactionType序号，其余见下方常量）
+ * @param quantity 变更数量
+ * @param currentStock 变更后当前库存
+ * @param reservedStock 变更后预留库存
+ */
+public record JournalEntry(long sequence, long productId, byte kind, int quantity,
+                           int currentStock, int reservedStock) {
+
+    /**
+     * 撤销本次请求自己完成的变更
+     */
+    public static final byte UNDO = -1;
+
+    /**
+     * 快照中的水位
+     */
+    public static final byte SNAPSHOT = -2;
+
+    /**
+     * 热点商品分片向账户续租（租约计入预留库存）
+     */
+    public static final byte LEASE = -3;
+
+    /**
+     * 热点商品分片归还未分配的租约
+     */
+    public static final byte LEASE_RETURN = -4;
+
+    /**
+     * 审计记录：完整的交易记录，载荷格式不同于水位记录，不参与水位回放（见TransactionJournal）
+     */
+    public static final byte TRANSACTION = -5;
+}
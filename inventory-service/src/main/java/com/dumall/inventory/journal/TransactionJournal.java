@@ -0,0 +1,582 @@
+package com.dumall.inventory.journal;
+
+import com.dumall.inventory.entity.InventoryTransaction;
+import com.dumall.inventory.entity.TransactionType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 库存变更日志
+ * 只追加的分段文件，每段预分配固定大小并内存映射写入；每条记录带长度和CRC32校验，
+ * 恢复时遇到零长度或校验失败即视为段尾。后台线程合并刷盘（一次force覆盖期间追加的所有记录），
+ * 调用方通过awaitDurable等待自己的记录落盘。快照保存全部商品水位和回放起始段。
+ * 除水位记录外，每条交易记录也完整写入日志作为审计记录；快照之前的段不再参与水位回放，
+ * 但其中的审计记录仍需保留，因此移入归档目录而不是删除
+ */
+@Slf4j
+@Component
+public class TransactionJournal {
+
+    private static final int HEADER_BYTES = 8;
+    private static final int PAYLOAD_BYTES = 29;
+    /**
+     * 记录类型字段在载荷中的偏移（序号和商品ID之后）
+     */
+    private static final int KIND_OFFSET = 16;
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String ARCHIVE_DIR = "archive";
+    private static final String SNAPSHOT_FILE = "snapshot.dat";
+    private static final int SNAPSHOT_MAGIC = 0x494E564A;
+
+    private final boolean enabled;
+    private final Path dir;
+    private final int segmentBytes;
+    private final long syncIntervalMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition synced = lock.newCondition();
+
+    // 以下字段由lock保护
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long segmentIndex;
+    private long appendedLsn;
+    private long durableLsn;
+
+    private volatile boolean running;
+    private Thread syncThread;
+
+    /**
+     * 启动时从快照和日志恢复的各商品最新水位
+     */
+    private final Map<Long, JournalEntry> recovered = new HashMap<>();
+
+    public TransactionJournal(@Value("${inventory.journal.enabled:true}") boolean enabled,
+                              @Value("${inventory.journal.dir:data/journal}") String dir,
+                              @Value("${inventory.journal.segment-bytes:16777216}") int segmentBytes,
+                              @Value("${inventory.journal.sync-interval-millis:10}") long syncIntervalMillis) {
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(dir);
+        long startSegment = readSnapshot();
+
+        List<Long> segments = listSegments(dir);
+        long lastSegment = Math.max(startSegment, 1);
+        int tail = 0;
+        int replayed = 0;
+        for (Long index : segments) {
+            if (index < startSegment) {
+                continue;
+            }
+            try (FileChannel ch = FileChannel.open(segmentPath(index), StandardOpenOption.READ)) {
+                MappedByteBuffer segment = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                ByteBuffer payload;
+                while ((payload = read(segment)) != null) {
+                    if (payload.get(KIND_OFFSET) != JournalEntry.TRANSACTION) {
+                        recover(getPayload(payload));
+                    }
+                    replayed++;
+                }
+                lastSegment = index;
+                tail = segment.position();
+            }
+        }
+
+        lock.lock();
+        try {
+            openSegment(lastSegment, tail);
+            // 清除段尾可能残留的半条记录，避免之后追加的记录与旧数据拼接
+            for (int i = tail; i < segmentBytes; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            appendedLsn = lsn();
+            durableLsn = appendedLsn;
+        } finally {
+            lock.unlock();
+        }
+        log.info("库存变更日志已打开: dir={}, 回放 {} 条记录, 恢复 {} 个商品, 当前段 {}",
+                dir.toAbsolutePath(), replayed, recovered.size(), lastSegment);
+
+        running = true;
+        syncThread = new Thread(this::syncLoop, "inventory-journal-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    /**
+     * 启动时恢复的各商品最新水位（只读一次）
+     */
+    public Collection<JournalEntry> recoveredEntries() {
+        return List.copyOf(recovered.values());
+    }
+
+    /**
+     * 追加一条记录（只写入内存映射，落盘由后台线程合并完成）
+     * @param entry 记录
+     */
+    public void append(JournalEntry entry) {
+        if (!enabled) {
+            return;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES);
+        putPayload(payload, entry);
+        appendPayload(payload.array());
+    }
+
+    /**
+     * 追加一条审计记录：完整的交易记录（水位回放时跳过）
+     * @param transaction 交易记录
+     * @param sequence 对应的台账变更序号
+     */
+    public void appendTransaction(InventoryTransaction transaction, long sequence) {
+        if (!enabled) {
+            return;
+        }
+        appendPayload(encodeTransaction(transaction, sequence));
+    }
+
+    /**
+     * 按写入顺序读取归档段和当前各段中的全部审计记录
+     * @param consumer 交易记录（不含数据库ID）
+     * @return 读取的条数
+     */
+    public int replayTransactions(Consumer<InventoryTransaction> consumer) {
+        if (!enabled) {
+            return 0;
+        }
+        List<Path> segments = new ArrayList<>();
+        try {
+            for (Long index : listSegments(dir.resolve(ARCHIVE_DIR))) {
+                segments.add(archivePath(index));
+            }
+            for (Long index : listSegments(dir)) {
+                segments.add(segmentPath(index));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取库存变更日志段失败", e);
+        }
+        segments.sort(Comparator.comparing(path -> path.getFileName().toString()));
+
+        int count = 0;
+        for (Path path : segments) {
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer segment = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+                ByteBuffer payload;
+                while ((payload = read(segment)) != null) {
+                    if (payload.get(KIND_OFFSET) == JournalEntry.TRANSACTION) {
+                        consumer.accept(decodeTransaction(payload));
+                        count++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取库存变更日志段失败: " + path, e);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 等待调用前追加的所有记录落盘
+     */
+    public void awaitDurable() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            long target = appendedLsn;
+            while (durableLsn < target) {
+                if (!running) {
+                    throw new IllegalStateException("库存变更日志已关闭");
+                }
+                synced.await(syncIntervalMillis * 10, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("等待库存变更日志落盘被中断");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 当前写入段（快照从该段开始回放）
+     */
+    public long currentSegment() {
+        lock.lock();
+        try {
+            return segmentIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入快照（先写临时文件再原子替换），并把快照之前的段移入归档目录
+     * @param startSegment 快照之后从该段开始回放
+     * @param entries 各商品水位
+     */
+    public void writeSnapshot(long startSegment, Collection<JournalEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        Path temp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(Channels.newOutputStream(ch));
+            CRC32 crc = new CRC32();
+            ByteBuffer record = ByteBuffer.allocate(PAYLOAD_BYTES);
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(startSegment);
+            out.writeInt(entries.size());
+            for (JournalEntry entry : entries) {
+                record.clear();
+                putPayload(record, entry);
+                crc.update(record.array(), 0, PAYLOAD_BYTES);
+                out.write(record.array(), 0, PAYLOAD_BYTES);
+            }
+            out.writeLong(crc.getValue());
+            out.flush();
+            ch.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("写入库存快照失败", e);
+        }
+        try {
+            Files.move(temp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            for (Long index : listSegments(dir)) {
+                if (index < startSegment) {
+                    Files.createDirectories(dir.resolve(ARCHIVE_DIR));
+                    Files.move(segmentPath(index), archivePath(index), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("替换库存快照失败", e);
+        }
+        log.info("库存快照已写入: {} 个商品, 回放起始段 {}", entries.size(), startSegment);
+    }
+
+    @PreDestroy
+    public void close() throws IOException, InterruptedException {
+        if (!enabled || !running) {
+            return;
+        }
+        running = false;
+        syncThread.interrupt();
+        syncThread.join();
+        lock.lock();
+        try {
+            buffer.force();
+            durableLsn = appendedLsn;
+            synced.signalAll();
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 合并刷盘：等待新记录，一次force覆盖期间追加的全部记录
+     */
+    private void syncLoop() {
+        while (running) {
+            long target;
+            MappedByteBuffer current;
+            lock.lock();
+            try {
+                while (running && durableLsn >= appendedLsn) {
+                    appended.await(syncIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                target = appendedLsn;
+                current = buffer;
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                lock.unlock();
+            }
+            current.force();
+            lock.lock();
+            try {
+                if (target > durableLsn) {
+                    durableLsn = target;
+                }
+                synced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void appendPayload(byte[] payload) {
+        if (HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("库存变更日志记录超过段大小: " + payload.length);
+        }
+        lock.lock();
+        try {
+            if (buffer.remaining() < HEADER_BYTES + payload.length) {
+                roll();
+            }
+            write(buffer, payload);
+            appendedLsn = lsn();
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() {
+        try {
+            buffer.force();
+            channel.close();
+            openSegment(segmentIndex + 1, 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("切换库存变更日志段失败", e);
+        }
+    }
+
+    private void openSegment(long index, int position) {
+        try {
+            channel = FileChannel.open(segmentPath(index), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            buffer.position(position);
+            segmentIndex = index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("打开库存变更日志段失败: " + index, e);
+        }
+    }
+
+    /**
+     * 日志序号：段号 * 段大小 + 段内偏移，单调递增
+     */
+    private long lsn() {
+        return segmentIndex * segmentBytes + buffer.position();
+    }
+
+    private long readSnapshot() throws IOException {
+        Path file = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.isRegularFile(file)) {
+            return 1;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("库存快照格式错误: " + file);
+            }
+            long startSegment = in.readLong();
+            int count = in.readInt();
+            CRC32 crc = new CRC32();
+            byte[] payload = new byte[PAYLOAD_BYTES];
+            List<JournalEntry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                in.readFully(payload);
+                crc.update(payload);
+                entries.add(getPayload(ByteBuffer.wrap(payload)));
+            }
+            if (in.readLong() != crc.getValue()) {
+                throw new IllegalStateException("库存快照校验失败: " + file);
+            }
+            entries.forEach(this::recover);
+            log.info("读取库存快照: {} 个商品, 回放起始段 {}", count, startSegment);
+            return startSegment;
+        }
+    }
+
+    private void recover(JournalEntry entry) {
+        JournalEntry existing = recovered.get(entry.productId());
+        if (existing == null || entry.sequence() > existing.sequence()) {
+            recovered.put(entry.productId(), entry);
+        }
+    }
+
+    private List<Long> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.valueOf(name.substring(0, name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(segmentName(index));
+    }
+
+    private Path archivePath(long index) {
+        return dir.resolve(ARCHIVE_DIR).resolve(segmentName(index));
+    }
+
+    private static String segmentName(long index) {
+        return String.format("%020d%s", index, SEGMENT_SUFFIX);
+    }
+
+    private static void write(ByteBuffer target, byte[] payload) {
+        int start = target.position();
+        target.position(start + HEADER_BYTES);
+        target.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        target.putInt(start + 4, (int) crc.getValue());
+        // 长度最后写入，非零长度表示记录完整
+        target.putInt(start, payload.length);
+    }
+
+    /**
+     * 读取一条记录
+     * @return 记录载荷，到达段尾或校验失败时为null（位置停在该记录开头）
+     */
+    private static ByteBuffer read(ByteBuffer source) {
+        int start = source.position();
+        if (source.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = source.getInt(start);
+        if (length <= KIND_OFFSET || length > source.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        int checksum = source.getInt(start + 4);
+        ByteBuffer payload = source.duplicate().position(start + HEADER_BYTES).limit(start + HEADER_BYTES + length)
+                .slice();
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            log.warn("库存变更日志校验失败，截断于偏移 {}", start);
+            return null;
+        }
+        source.position(start + HEADER_BYTES + length);
+        return payload;
+    }
+
+    private static void putPayload(ByteBuffer target, JournalEntry entry) {
+        target.putLong(entry.sequence());
+        target.putLong(entry.productId());
+        target.put(entry.kind());
+        target.putInt(entry.quantity());
+        target.putInt(entry.currentStock());
+        target.putInt(entry.reservedStock());
+    }
+
+    private static JournalEntry getPayload(ByteBuffer source) {
+        return new JournalEntry(source.getLong(), source.getLong(), source.get(), source.getInt(),
+                source.getInt(), source.getInt());
+    }
+
+    /**
+     * 审计记录载荷：序号、商品ID、记录类型与水位记录位置相同，之后是交易记录的其余字段，
+     * 创建时间按UTC换算为秒和纳秒，字符串为长度加UTF-8字节（长度-1表示null）
+     */
+    private static byte[] encodeTransaction(InventoryTransaction t, long sequence) {
+        byte[][] strings = {utf8(t.getProductName()), utf8(t.getReferenceId()), utf8(t.getReferenceType()),
+                utf8(t.getOperatorName()), utf8(t.getNotes()), utf8(t.getIdempotencyKey())};
+        int size = KIND_OFFSET + 1 + 1 + 12 + 12 + 9;
+        for (byte[] value : strings) {
+            size += 4 + (value == null ? 0 : value.length);
+        }
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.putLong(sequence);
+        payload.putLong(t.getProductId());
+        payload.put(JournalEntry.TRANSACTION);
+        payload.put((byte) t.getTransactionType().ordinal());
+        payload.putInt(t.getQuantity());
+        payload.putInt(t.getBeforeStock());
+        payload.putInt(t.getAfterStock());
+        payload.putLong(t.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+        payload.putInt(t.getCreatedAt().getNano());
+        payload.put((byte) (t.getOperatorId() == null ? 0 : 1));
+        payload.putLong(t.getOperatorId() == null ? 0 : t.getOperatorId());
+        for (byte[] value : strings) {
+            payload.putInt(value == null ? -1 : value.length);
+            if (value != null) {
+                payload.put(value);
+            }
+        }
+        return payload.array();
+    }
+
+    private static InventoryTransaction decodeTransaction(ByteBuffer source) {
+        source.getLong();
+        Long productId = source.getLong();
+        source.get();
+        TransactionType type = TransactionType.values()[source.get()];
+        int quantity = source.getInt();
+        int beforeStock = source.getInt();
+        int afterStock = source.getInt();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(source.getLong(), source.getInt(), ZoneOffset.UTC);
+        boolean hasOperator = source.get() != 0;
+        long operatorId = source.getLong();
+        return InventoryTransaction.builder()
+                .productId(productId)
+                .transactionType(type)
+                .quantity(quantity)
+                .beforeStock(beforeStock)
+                .afterStock(afterStock)
+                .createdAt(createdAt)
+                .operatorId(hasOperator ? operatorId : null)
+                .productName(getString(source))
+                .referenceId(getString(source))
+                .referenceType(getString(source))
+                .operatorName(getString(source))
+                .notes(getString(source))
+                .idempotencyKey(getString(source))
+                .build();
+    }
+
+    private static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer source) {
+        int length = source.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        source.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,10 @@
+package com.dumall.inventory.ledger;
+
+/**
+ * 一次库存变更前后的水位
+ * @param productName 商品名称
+ * @param before 变更前
+ * @param after 变更后
+ */
+public record StockChange(String productName, StockLevel before, StockLevel after) {
+}
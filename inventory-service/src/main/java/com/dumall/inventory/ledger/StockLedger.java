@@ -0,0 +1,619 @@
+package com.dumall.inventory.ledger;
+
+import com.dumall.inventory.concurrency.ConflictMetrics;
+import com.dumall.inventory.entity.Inventory;
+import com.dumall.inventory.entity.InventoryStatus;
+import com.dumall.inventory.entity.TransactionType;
+import com.dumall.inventory.journal.JournalEntry;
+import com.dumall.inventory.journal.TransactionJournal;
+import com.dumall.inventory.repository.InventoryRepository;
+import com.dumall.inventory.statistics.InventoryStatisticsTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * 内存库存台账
+ * 每个商品的当前库存/预留库存是一个不可变的StockLevel，变更通过CAS整体替换（无锁，不同商品互不影响）；
+ * 台账是库存数量的权威来源，每次变更追加到TransactionJournal，数据库中的inventory行由StockLedgerFlusher
+ * 按顺序异步回写；当前库存或参数变化时同步更新增量统计。
+ * 热点商品可开启分片模式：预留从StockStripes的分片中扣减，不再竞争同一个CAS；租给分片的数量计入预留库存
+ * （任何时候都不会超卖），对外展示时扣除。进程异常终止时尚未分配的租约会残留为预留库存（每个商品最多
+ * 分片数×续租量），正常停止时全部收回
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockLedger {
+
+    /**
+     * 分片预留的最多尝试次数（每次尝试失败后续租或调拨），用尽后收回租约改走账户CAS
+     */
+    private static final int STRIPE_ATTEMPTS = 8;
+
+    private final InventoryRepository inventoryRepository;
+    private final ConflictMetrics conflictMetrics;
+    private final InventoryStatisticsTracker statisticsTracker;
+    private final TransactionJournal transactionJournal;
+
+    private final Map<Long, StockAccount> accounts = new ConcurrentHashMap<>();
+
+    /**
+     * 全局变更序号
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Value("${inventory.hot-sku.product-ids:}")
+    private List<Long> hotProductIds;
+
+    @Value("${inventory.hot-sku.stripes:8}")
+    private int defaultStripes;
+
+    @Value("${inventory.hot-sku.lease-size:16}")
+    private int leaseSize;
+
+    /**
+     * 一次性加载全部库存记录（由JournalCheckpointer在Web服务启动前调用，之后用日志恢复的水位覆盖）
+     */
+    public void load() {
+        List<Inventory> inventories = inventoryRepository.findAll();
+        inventories.forEach(this::register);
+        log.info("库存台账加载完成: {} 个商品", inventories.size());
+        for (Long productId : hotProductIds) {
+            if (accounts.containsKey(productId)) {
+                enableStriping(productId, null);
+            } else {
+                log.warn("热点商品不存在库存记录，忽略: productId={}", productId);
+            }
+        }
+    }
+
+    /**
+     * 登记新建的库存记录（已登记时忽略）
+     * @param inventory 库存记录
+     */
+    public void register(Inventory inventory) {
+        StockAccount account = new StockAccount(inventory);
+        if (accounts.putIfAbsent(inventory.getProductId(), account) == null) {
+            statisticsTracker.add(inventory.getCurrentStock(), account.minStock, account.unitPrice, account.status);
+        }
+    }
+
+    /**
+     * 按交易类型变更库存
+     * @param productId 商品ID
+     * @param type 交易类型
+     * @param quantity 数量（ADJUSTMENT为调整后的库存）
+     * @return 变更前后的水位
+     */
+    public StockChange apply(Long productId, TransactionType type, int quantity) {
+        StockAccount account = account(productId);
+        StockStripes stripes = account.stripes;
+        if (stripes != null) {
+            if (type == TransactionType.RESERVE) {
+                StockChange change = reserveStriped(productId, account, stripes, quantity);
+                if (change != null) {
+                    return change;
+                }
+                // 分片争用激烈时收回租约，改走账户CAS
+                reclaim(productId, account, stripes);
+            } else if (type == TransactionType.ADJUSTMENT) {
+                reclaim(productId, account, stripes);
+            } else if (type == TransactionType.RELEASE) {
+                synchronized (stripes) {
+                    return applyLevel(productId, account, stripes, type, quantity);
+                }
+            }
+        }
+        return applyLevel(productId, account, stripes, type, quantity);
+    }
+
+    /**
+     * 在账户水位上CAS变更（分片模式下的释放须持有分片锁调用，保证读取的水位与分片余量一致）
+     */
+    private StockChange applyLevel(Long productId, StockAccount account, StockStripes stripes,
+                                   TransactionType type, int quantity) {
+        boolean reclaimed = false;
+        for (int retries = 0; ; retries++) {
+            StockLevel before = account.level.get();
+            int current = before.currentStock();
+            int reserved = before.reservedStock();
+            switch (type) {
+                case INBOUND, RETURN -> current += quantity;
+                case OUTBOUND -> {
+                    if (before.availableStock() < quantity) {
+                        // 分片模式下先收回分片中未分配的租约再判断
+                        if (stripes != null && !reclaimed) {
+                            reclaim(productId, account, stripes);
+                            reclaimed = true;
+                            continue;
+                        }
+                        throw new RuntimeException("库存不足");
+                    }
+                    current -= quantity;
+                }
+                case RESERVE -> {
+                    if (before.availableStock() < quantity) {
+                        throw new RuntimeException("可预留库存不足");
+                    }
+                    reserved += quantity;
+                }
+                case RELEASE -> {
+                    if (assignedReserved(stripes, before) < quantity) {
+                        throw new RuntimeException("预留库存不足");
+                    }
+                    reserved -= quantity;
+                }
+                case ADJUSTMENT -> current = quantity;
+                case DAMAGE -> {
+                    if (current < quantity) {
+                        throw new RuntimeException("库存不足");
+                    }
+                    current -= quantity;
+                }
+            }
+            // 序号在读取水位之后获取，CAS成功时同一商品的序号顺序与变更顺序一致
+            StockLevel after = new StockLevel(current, reserved, sequence.incrementAndGet());
+            if (account.level.compareAndSet(before, after)) {
+                conflictMetrics.ledgerUpdate(productId, retries);
+                stockChanged(productId, account, before, after, (byte) type.ordinal(), quantity);
+                return new StockChange(account.productName, before, after);
+            }
+        }
+    }
+
+    /**
+     * 整单预留：按商品ID升序逐个预留，任一商品不足时撤销已完成的预留并抛出异常
+     * @param quantities 商品ID到预留数量（按商品ID升序）
+     * @return 按商品ID升序排列的变更
+     */
+    public List<StockChange> reserveAll(SortedMap<Long, Integer> quantities) {
+        return applyAll(quantities, (productId, quantity) -> apply(productId, TransactionType.RESERVE, quantity),
+                (productId, quantity) -> shift(productId, 0, -quantity));
+    }
+
+    /**
+     * 预留转出库：当前库存和预留库存同时扣减
+     * @param productId 商品ID
+     * @param quantity 数量
+     * @return 变更前后的水位
+     */
+    public StockChange fulfil(Long productId, int quantity) {
+        StockAccount account = account(productId);
+        StockStripes stripes = account.stripes;
+        if (stripes == null) {
+            return fulfilLevel(productId, account, null, quantity);
+        }
+        synchronized (stripes) {
+            return fulfilLevel(productId, account, stripes, quantity);
+        }
+    }
+
+    private StockChange fulfilLevel(Long productId, StockAccount account, StockStripes stripes, int quantity) {
+        for (int retries = 0; ; retries++) {
+            StockLevel before = account.level.get();
+            if (assignedReserved(stripes, before) < quantity || before.currentStock() < quantity) {
+                throw new RuntimeException("预留库存不足");
+            }
+            StockLevel after = new StockLevel(before.currentStock() - quantity, before.reservedStock() - quantity,
+                    sequence.incrementAndGet());
+            if (account.level.compareAndSet(before, after)) {
+                conflictMetrics.ledgerUpdate(productId, retries);
+                stockChanged(productId, account, before, after, (byte) TransactionType.OUTBOUND.ordinal(),
+                        quantity);
+                return new StockChange(account.productName, before, after);
+            }
+        }
+    }
+
+    /**
+     * 整单预留转出库：按商品ID升序逐个处理，任一商品失败时撤销已完成的部分并抛出异常
+     * @param quantities 商品ID到数量（按商品ID升序）
+     * @return 按商品ID升序排列的变更
+     */
+    public List<StockChange> fulfilAll(SortedMap<Long, Integer> quantities) {
+        return applyAll(quantities, this::fulfil, (productId, quantity) -> shift(productId, quantity, quantity));
+    }
+
+    /**
+     * 库存记录被直接修改后同步台账（保留预留库存）
+     * @param inventory 修改后的库存记录
+     * @return 同步后的水位
+     */
+    public StockLevel reset(Inventory inventory) {
+        StockAccount account = account(inventory.getProductId());
+        StockStripes stripes = account.stripes;
+        if (stripes != null) {
+            reclaim(inventory.getProductId(), account, stripes);
+        }
+        int oldMinStock = account.minStock;
+        double oldUnitPrice = account.unitPrice;
+        InventoryStatus oldStatus = account.status;
+        account.productName = inventory.getProductName();
+        account.minStock = inventory.getMinStock();
+        account.unitPrice = inventory.getUnitPrice();
+        account.status = inventory.getStatus();
+        while (true) {
+            StockLevel before = account.level.get();
+            StockLevel after = new StockLevel(inventory.getCurrentStock(), before.reservedStock(),
+                    sequence.incrementAndGet());
+            if (account.level.compareAndSet(before, after)) {
+                statisticsTracker.update(before.currentStock(), oldMinStock, oldUnitPrice, oldStatus,
+                        after.currentStock(), account.minStock, account.unitPrice, account.status);
+                journal(inventory.getProductId(), after, (byte) TransactionType.ADJUSTMENT.ordinal(),
+                        after.currentStock());
+                return after;
+            }
+        }
+    }
+
+    /**
+     * 开启热点商品分片模式（已开启时忽略）
+     * @param productId 商品ID
+     * @param stripes 分片数（为空时使用默认分片数）
+     */
+    public void enableStriping(Long productId, Integer stripes) {
+        int count = stripes != null ? stripes : defaultStripes;
+        if (count < 2) {
+            throw new RuntimeException("分片数必须大于1");
+        }
+        StockAccount account = account(productId);
+        synchronized (account) {
+            if (account.stripes == null) {
+                account.stripes = new StockStripes(count, leaseSize);
+                log.info("开启热点商品分片模式: productId={}, stripes={}", productId, count);
+            }
+        }
+    }
+
+    /**
+     * 关闭热点商品分片模式，收回分片中未分配的租约
+     * @param productId 商品ID
+     */
+    public void disableStriping(Long productId) {
+        StockAccount account = account(productId);
+        StockStripes stripes;
+        synchronized (account) {
+            stripes = account.stripes;
+        }
+        if (stripes != null) {
+            // 先收回再摘下：读到分片为null的线程看到的一定是收回后的水位
+            synchronized (stripes) {
+                reclaim(productId, account, stripes);
+                account.stripes = null;
+            }
+            log.info("关闭热点商品分片模式: productId={}", productId);
+        }
+    }
+
+    /**
+     * 商品的分片数（未开启分片模式时为0）
+     */
+    public int stripes(Long productId) {
+        StockStripes stripes = account(productId).stripes;
+        return stripes == null ? 0 : stripes.stripes();
+    }
+
+    /**
+     * 收回全部热点商品分片中未分配的租约（停止前调用，使快照中的预留库存准确）
+     */
+    public void reclaimAll() {
+        accounts.forEach((productId, account) -> {
+            StockStripes stripes = account.stripes;
+            if (stripes != null) {
+                reclaim(productId, account, stripes);
+            }
+        });
+    }
+
+    /**
+     * 用日志恢复的水位覆盖台账（不再追加日志）
+     * @param productId 商品ID
+     * @param level 恢复的水位
+     * @return 台账中是否存在该商品
+     */
+    public boolean restore(Long productId, StockLevel level) {
+        StockAccount account = accounts.get(productId);
+        if (account == null) {
+            return false;
+        }
+        StockLevel before = account.level.getAndSet(level);
+        if (before.currentStock() != level.currentStock()) {
+            statisticsTracker.update(before.currentStock(), account.minStock, account.unitPrice, account.status,
+                    level.currentStock(), account.minStock, account.unitPrice, account.status);
+        }
+        return true;
+    }
+
+    /**
+     * 保证之后的变更序号大于日志中已有的序号
+     * @param minimum 日志中的最大序号
+     */
+    public void advanceSequence(long minimum) {
+        sequence.accumulateAndGet(minimum, Math::max);
+    }
+
+    /**
+     * 全部商品的当前水位
+     */
+    public Map<Long, StockLevel> levels() {
+        Map<Long, StockLevel> levels = new HashMap<>(accounts.size() * 2);
+        accounts.forEach((productId, account) -> levels.put(productId, account.level.get()));
+        return levels;
+    }
+
+    /**
+     * 库存记录删除后移出台账
+     * @param productId 商品ID
+     */
+    public void remove(Long productId) {
+        StockAccount account = accounts.remove(productId);
+        if (account != null) {
+            statisticsTracker.remove(account.level.get().currentStock(), account.minStock, account.unitPrice,
+                    account.status);
+        }
+    }
+
+    /**
+     * 用台账中的最新数量覆盖库存记录（数据库行可能尚未回写）
+     * @param inventory 库存记录
+     * @return 同一对象
+     */
+    public Inventory overlay(Inventory inventory) {
+        StockAccount account = accounts.get(inventory.getProductId());
+        if (account != null) {
+            StockLevel level = account.visibleLevel();
+            inventory.setCurrentStock(level.currentStock());
+            inventory.setReservedStock(level.reservedStock());
+            inventory.setAvailableStock(level.availableStock());
+            inventory.setStatus(determineStatus(level.currentStock(), account.minStock, account.status));
+        }
+        return inventory;
+    }
+
+    /**
+     * 商品当前水位（不含分片中尚未分配的租约）
+     * @param productId 商品ID
+     * @return 库存水位
+     */
+    public StockLevel level(Long productId) {
+        return account(productId).visibleLevel();
+    }
+
+    /**
+     * 根据库存数量判断库存状态；已停售的保持停售
+     * @param status 库存记录中保存的状态
+     */
+    public static InventoryStatus determineStatus(int currentStock, int minStock, InventoryStatus status) {
+        return status == InventoryStatus.DISCONTINUED ? status : determineStatus(currentStock, minStock);
+    }
+
+    /**
+     * 根据库存数量判断库存状态
+     */
+    public static InventoryStatus determineStatus(int currentStock, int minStock) {
+        if (currentStock == 0) {
+            return InventoryStatus.OUT_OF_STOCK;
+        } else if (currentStock <= minStock) {
+            return InventoryStatus.LOW_STOCK;
+        } else {
+            return InventoryStatus.ACTIVE;
+        }
+    }
+
+    /**
+     * 已加载的商品账户（不触发加载）
+     */
+    StockAccount peek(Long productId) {
+        return accounts.get(productId);
+    }
+
+    /**
+     * 分片模式下的预留：从本线程的分片扣减，分片不足时向账户续租或从其他分片调拨
+     * 租约已计入账户的预留库存并写入日志，扣减分片本身不改变账户水位，也不追加日志。
+     * 续租、调拨、收回都持有分片锁，只有扣减分片是无锁的
+     * @return 变更前后的水位；尝试次数用尽或分片模式已关闭时为null（由调用方改走账户CAS）
+     */
+    private StockChange reserveStriped(Long productId, StockAccount account, StockStripes stripes, int quantity) {
+        int home = stripes.home();
+        for (int attempt = 0; attempt < STRIPE_ATTEMPTS && account.stripes == stripes; attempt++) {
+            if (stripes.tryTake(home, quantity)) {
+                conflictMetrics.ledgerUpdate(productId, attempt);
+                StockLevel level = account.level.get();
+                StockLevel after = new StockLevel(level.currentStock(), level.reservedStock(),
+                        sequence.incrementAndGet());
+                return new StockChange(account.productName, level, after);
+            }
+            if (!lease(productId, account, stripes, home, quantity)) {
+                boolean stolen;
+                synchronized (stripes) {
+                    stolen = stripes.steal(home, quantity);
+                }
+                if (!stolen && account.stripes == stripes) {
+                    throw new RuntimeException("可预留库存不足");
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从账户可用库存向分片续租
+     * @return 是否租到库存
+     */
+    private boolean lease(Long productId, StockAccount account, StockStripes stripes, int stripe, int quantity) {
+        synchronized (stripes) {
+            // 分片已摘下（关闭分片模式）时不再续租
+            if (account.stripes != stripes) {
+                return false;
+            }
+            for (int retries = 0; ; retries++) {
+                StockLevel before = account.level.get();
+                int granted = Math.min(before.availableStock(), stripes.leaseSize(quantity));
+                if (granted <= 0) {
+                    return false;
+                }
+                StockLevel after = new StockLevel(before.currentStock(), before.reservedStock() + granted,
+                        sequence.incrementAndGet());
+                if (account.level.compareAndSet(before, after)) {
+                    conflictMetrics.ledgerUpdate(productId, retries);
+                    journal(productId, after, JournalEntry.LEASE, granted);
+                    stripes.put(stripe, granted);
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 收回分片中未分配的租约，归还为账户可用库存
+     */
+    private void reclaim(Long productId, StockAccount account, StockStripes stripes) {
+        synchronized (stripes) {
+            int drained = stripes.drainAll();
+            if (drained == 0) {
+                return;
+            }
+            while (true) {
+                StockLevel before = account.level.get();
+                StockLevel after = new StockLevel(before.currentStock(), before.reservedStock() - drained,
+                        sequence.incrementAndGet());
+                if (account.level.compareAndSet(before, after)) {
+                    journal(productId, after, JournalEntry.LEASE_RETURN, drained);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 已分配给预留的数量（不含分片中未分配的租约）
+     * 分片模式下须持有分片锁调用：续租、调拨、收回都在锁内完成，读取的水位与分片余量不会错开
+     */
+    private static int assignedReserved(StockStripes stripes, StockLevel level) {
+        return stripes == null ? level.reservedStock() : level.reservedStock() - stripes.unassigned();
+    }
+
+    private List<StockChange> applyAll(SortedMap<Long, Integer> quantities,
+                                       BiFunction<Long, Integer, StockChange> operation,
+                                       BiConsumer<Long, Integer> undo) {
+        List<StockChange> changes = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                changes.add(operation.apply(entry.getKey(), entry.getValue()));
+            }
+            return changes;
+        } catch (RuntimeException e) {
+            int i = 0;
+            for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+                if (i++ >= changes.size()) {
+                    break;
+                }
+                undo.accept(entry.getKey(), entry.getValue());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 撤销本次请求自己完成的变更（不产生交易记录，无需检查余量）
+     */
+    private void shift(Long productId, int currentDelta, int reservedDelta) {
+        StockAccount account = accounts.get(productId);
+        if (account == null) {
+            return;
+        }
+        while (true) {
+            StockLevel before = account.level.get();
+            StockLevel after = new StockLevel(before.currentStock() + currentDelta,
+                    before.reservedStock() + reservedDelta, sequence.incrementAndGet());
+            if (account.level.compareAndSet(before, after)) {
+                stockChanged(productId, account, before, after, JournalEntry.UNDO, 0);
+                return;
+            }
+        }
+    }
+
+    private void stockChanged(Long productId, StockAccount account, StockLevel before, StockLevel after,
+                              byte kind, int quantity) {
+        if (before.currentStock() != after.currentStock()) {
+            statisticsTracker.update(before.currentStock(), account.minStock, account.unitPrice, account.status,
+                    after.currentStock(), account.minStock, account.unitPrice, account.status);
+        }
+        journal(productId, after, kind, quantity);
+    }
+
+    private void journal(Long productId, StockLevel after, byte kind, int quantity) {
+        transactionJournal.append(new JournalEntry(after.sequence(), productId, kind, quantity,
+                after.currentStock(), after.reservedStock()));
+    }
+
+    private StockAccount account(Long productId) {
+        StockAccount account = accounts.get(productId);
+        if (account == null) {
+            Inventory inventory = inventoryRepository.findByProductId(productId)
+                    .orElseThrow(() -> new RuntimeException("库存记录不存在"));
+            register(inventory);
+            account = accounts.get(productId);
+            if (account == null) {
+                throw new RuntimeException("库存记录不存在");
+            }
+        }
+        return account;
+    }
+
+    /**
+     * 单个商品的台账
+     */
+    static final class StockAccount {
+
+        final AtomicReference<StockLevel> level;
+        volatile String productName;
+        volatile int minStock;
+        volatile double unitPrice;
+
+        /**
+         * 库存记录中保存的状态（用于保留人工设置的停售状态）
+         */
+        volatile InventoryStatus status;
+
+        /**
+         * 热点商品分片（未开启分片模式时为null）
+         */
+        volatile StockStripes stripes;
+
+        StockAccount(Inventory inventory) {
+            this.level = new AtomicReference<>(new StockLevel(inventory.getCurrentStock(),
+                    inventory.getReservedStock(), 0));
+            this.productName = inventory.getProductName();
+            this.minStock = inventory.getMinStock();
+            this.unitPrice = inventory.getUnitPrice();
+            this.status = inventory.getStatus();
+        }
+
+        /**
+         * 对外展示的水位（预留库存不含分片中未分配的租约）
+         */
+        StockLevel visibleLevel() {
+            StockLevel level = this.level.get();
+            StockStripes stripes = this.stripes;
+            if (stripes == null) {
+                return level;
+            }
+            return new StockLevel(level.currentStock(), level.reservedStock() - stripes.unassigned(),
+                    level.sequence());
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.dumall.inventory.ledger;
+
+import com.dumall.inventory.entity.InventoryTransaction;
+import com.dumall.inventory.journal.TransactionJournal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 库存台账回写
+ * 交易记录先完整写入库存变更日志（审计记录，数据库中的交易记录可由日志重建），再进入无锁队列（同一次登记的多条记录作为整体，保证在同一事务中写入），
+ * 定时任务按变更序号顺序批量插入inventory_transactions，
+ * 并在同一事务内把有变更商品的最新水位批量写回inventory（同时递增版本号，使并发的JPA更新产生乐观锁冲突）；
+ * 写入失败的批次保留到下次重试（违反幂等键唯一约束时库存已经变更，交易记录去掉幂等键后照常写入）；
+ * 同一批次连续失败达到上限后逐组单独写入，违反数据约束的一组记入错误日志后丢弃（死信），避免个别问题记录阻塞全部回写。
+ * 待回写的记录超过上限时拒绝新的库存变更，防止数据库不可用时队列无限增长
+ */
+@Slf4j
+@Component
+public class StockLedgerFlusher {
+
+    private static final String INSERT_TRANSACTION = "INSERT INTO inventory_transactions (product_id, product_name, "
+            + "transaction_type, quantity, before_stock, after_stock, reference_id, reference_type, operator_id, "
+            + "operator_name, notes, created_at, idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COUNT_IDEMPOTENCY_KEY =
+            "SELECT COUNT(*) FROM inventory_transactions WHERE idempotency_key = ?";
+
+    private static final String UPDATE_INVENTORY = "UPDATE inventory SET current_stock = ?, reserved_stock = ?, "
+            + "available_stock = ?, status = ?, updated_at = ?, version = version + 1 WHERE product_id = ?";
+
+    private final StockLedger stockLedger;
+    private final TransactionJournal transactionJournal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchAttempts;
+    private final int maxPending;
+    private final Counter deadLetters;
+
+    private final Queue<List<PendingTransaction>> queue = new ConcurrentLinkedQueue<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 尚未写入数据库、带幂等键的交易记录（写入提交后才移除，供幂等键查询在数据库之前检查）
+     */
+    private final Map<String, InventoryTransaction> pendingKeys = new ConcurrentHashMap<>();
+
+    /**
+     * 上次写入失败、等待重试的交易记录组（只由回写任务访问）
+     */
+    private final List<List<PendingTransaction>> retry = new ArrayList<>();
+
+    /**
+     * 当前批次连续写入失败的次数（只由回写任务访问）
+     */
+    private int failures;
+
+    /**
+     * 尚未写入的交易记录条数（包括等待重试的）
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public StockLedgerFlusher(StockLedger stockLedger,
+                              TransactionJournal transactionJournal,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${inventory.ledger.flush-batch-size:500}") int batchSize,
+                              @Value("${inventory.ledger.max-batch-attempts:3}") int maxBatchAttempts,
+                              @Value("${inventory.ledger.max-pending:100000}") int maxPending) {
+        this.stockLedger = stockLedger;
+        this.transactionJournal = transactionJournal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxBatchAttempts = maxBatchAttempts;
+        this.maxPending = maxPending;
+        this.deadLetters = Counter.builder("inventory.ledger.dead-letters")
+                .description("逐组写入时违反数据约束、记入错误日志后丢弃的交易记录数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 检查回写积压，超过上限时拒绝新的库存变更（在修改台账之前调用）
+     */
+    public void ensureCapacity() {
+        if (queued.get() >= maxPending) {
+            throw new RuntimeException("库存台账回写积压，请稍后重试");
+        }
+    }
+
+    /**
+     * 登记一次库存变更，等待回写
+     * @param transaction 交易记录
+     * @param sequence 变更序号
+     */
+    public void enqueue(InventoryTransaction transaction, long sequence) {
+        transactionJournal.appendTransaction(transaction, sequence);
+        if (transaction.getIdempotencyKey() != null) {
+            pendingKeys.put(transaction.getIdempotencyKey(), transaction);
+        }
+        dirtyProducts.add(transaction.getProductId());
+        queued.incrementAndGet();
+        queue.add(List.of(new PendingTransaction(transaction, sequence)));
+    }
+
+    /**
+     * 标记商品水位需要回写（没有交易记录的变更，如启动时从日志恢复）
+     * @param productId 商品ID
+     */
+    public void markDirty(Long productId) {
+        dirtyProducts.add(productId);
+    }
+
+    /**
+     * 登记一组库存变更，这些交易记录总是在同一个事务中写入
+     * @param transactions 交易记录
+     * @param sequences 与交易记录一一对应的变更序号
+     */
+    public void enqueueAll(List<InventoryTransaction> transactions, List<Long> sequences) {
+        List<PendingTransaction> group = new ArrayList<>(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            transactionJournal.appendTransaction(transactions.get(i), sequences.get(i));
+            dirtyProducts.add(transactions.get(i).getProductId());
+            group.add(new PendingTransaction(transactions.get(i), sequences.get(i)));
+        }
+        queued.addAndGet(group.size());
+        queue.add(group);
+    }
+
+    /**
+     * 直接写入从库存变更日志重建的交易记录（不再写入日志，也不计入待回写数量）
+     * @param transactions 交易记录
+     */
+    public void restore(List<InventoryTransaction> transactions) {
+        List<PendingTransaction> batch = new ArrayList<>(transactions.size());
+        transactions.forEach(transaction -> batch.add(new PendingTransaction(transaction, 0)));
+        transactionTemplate.executeWithoutResult(status -> insertTransactions(batch));
+    }
+
+    /**
+     * 尚未写入数据库的交易记录
+     * @param idempotencyKey 幂等键
+     * @return 交易记录，已写入或不存在时为null
+     */
+    public InventoryTransaction pendingTransaction(String idempotencyKey) {
+        return pendingKeys.get(idempotencyKey);
+    }
+
+    /**
+     * 待回写的交易记录数
+     */
+    public int pendingCount() {
+        return queued.get();
+    }
+
+    /**
+     * 回写所有待处理的变更
+     */
+    @Scheduled(fixedDelayString = "${inventory.ledger.flush-interval-millis:200}")
+    public synchronized void flush() {
+        while (true) {
+            List<List<PendingTransaction>> groups = new ArrayList<>(retry);
+            retry.clear();
+            int rows = groups.stream().mapToInt(List::size).sum();
+            List<PendingTransaction> next;
+            while (rows < batchSize && (next = queue.poll()) != null) {
+                groups.add(next);
+                rows += next.size();
+            }
+            if (groups.isEmpty() && dirtyProducts.isEmpty()) {
+                return;
+            }
+            if (write(groups)) {
+                failures = 0;
+                queued.addAndGet(-rows);
+                groups.forEach(this::written);
+            } else if (++failures < maxBatchAttempts) {
+                retry.addAll(groups);
+                return;
+            } else {
+                failures = 0;
+                if (!writeEach(groups)) {
+                    return;
+                }
+            }
+            if (rows < batchSize) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (pendingCount() > 0) {
+            log.error("库存台账停止时仍有 {} 条交易记录未回写", pendingCount());
+        }
+    }
+
+    private boolean write(List<List<PendingTransaction>> groups) {
+        List<PendingTransaction> batch = new ArrayList<>();
+        groups.forEach(batch::addAll);
+        // 入队顺序与CAS顺序可能有微小差异，批次内按变更序号排序
+        batch.sort(Comparator.comparingLong(PendingTransaction::sequence));
+        // 先移出再读取水位：读取之后的变更会重新标记
+        List<Long> products = new ArrayList<>(dirtyProducts);
+        products.forEach(dirtyProducts::remove);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                insertTransactions(batch);
+                updateInventories(products);
+            });
+            log.debug("库存台账回写完成: {} 条交易记录, {} 个商品", batch.size(), products.size());
+            return true;
+        } catch (DuplicateKeyException e) {
+            int detached = detachDuplicateKeys(groups);
+            log.error("交易记录违反幂等键唯一约束，{} 条记录去掉幂等键后稍后重试", detached, e);
+            dirtyProducts.addAll(products);
+            return false;
+        } catch (DataAccessException e) {
+            log.error("库存台账回写失败，稍后重试: {} 条交易记录", batch.size(), e);
+            dirtyProducts.addAll(products);
+            return false;
+        }
+    }
+
+    /**
+     * 逐组在独立事务中写入，违反数据约束的一组记入错误日志后丢弃；最后单独回写库存水位。
+     * 其他错误（如数据库不可用）与具体记录无关，剩余的组全部保留到下次重试
+     * @return 是否所有组都已处理
+     */
+    private boolean writeEach(List<List<PendingTransaction>> groups) {
+        log.warn("库存台账批次连续 {} 次写入失败，逐组写入以隔离问题记录: {} 组", maxBatchAttempts, groups.size());
+        groups.sort(Comparator.comparingLong(group -> group.get(0).sequence()));
+        for (int i = 0; i < groups.size(); i++) {
+            List<PendingTransaction> group = groups.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertTransactions(group));
+                written(group);
+            } catch (DataIntegrityViolationException e) {
+                deadLetters.increment(group.size());
+                group.forEach(pending -> log.error("交易记录违反数据约束，已丢弃: {}", pending.transaction()));
+                log.error("丢弃的交易记录写入失败原因", e);
+                written(group);
+            } catch (DataAccessException e) {
+                log.error("库存台账逐组写入失败，稍后重试: {} 组", groups.size() - i, e);
+                retry.addAll(groups.subList(i, groups.size()));
+                return false;
+            }
+            queued.addAndGet(-group.size());
+        }
+        return write(List.of());
+    }
+
+    /**
+     * 幂等键已存在于数据库或在批次内重复的交易记录：对应的库存变更已经生效，不能丢弃，
+     * 去掉幂等键后照常写入（正常情况下不会发生，幂等键索引在执行前会检查待回写记录和数据库）
+     * @return 去掉幂等键的条数
+     */
+    private int detachDuplicateKeys(List<List<PendingTransaction>> groups) {
+        Set<String> seen = new HashSet<>();
+        int detached = 0;
+        for (List<PendingTransaction> group : groups) {
+            for (PendingTransaction pending : group) {
+                InventoryTransaction transaction = pending.transaction();
+                String key = transaction.getIdempotencyKey();
+                if (key != null && (!seen.add(key)
+                        || jdbcTemplate.queryForObject(COUNT_IDEMPOTENCY_KEY, Long.class, key) > 0)) {
+                    log.error("重复的幂等键，交易记录去掉幂等键后写入: {}", transaction);
+                    pendingKeys.remove(key, transaction);
+                    transaction.setIdempotencyKey(null);
+                    detached++;
+                }
+            }
+        }
+        return detached;
+    }
+
+    /**
+     * 一组交易记录已处理（写入或丢弃），不再作为待回写的幂等键
+     */
+    private void written(List<PendingTransaction> group) {
+        for (PendingTransaction pending : group) {
+            String key = pending.transaction().getIdempotencyKey();
+            if (key != null) {
+                pendingKeys.remove(key, pending.transaction());
+            }
+        }
+    }
+
+    private void insertTransactions(List<PendingTransaction> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION, batch, batch.size(), (ps, pending) -> {
+            InventoryTransaction t = pending.transaction();
+            ps.setLong(1, t.getProductId());
+            ps.setString(2, t.getProductName());
+            ps.setString(3, t.getTransactionType().name());
+            ps.setInt(4, t.getQuantity());
+            ps.setInt(5, t.getBeforeStock());
+            ps.setInt(6, t.getAfterStock());
+            ps.setString(7, t.getReferenceId());
+            ps.setString(8, t.getReferenceType());
+            ps.setObject(9, t.getOperatorId(), Types.BIGINT);
+            ps.setString(10, t.getOperatorName());
+            ps.setString(11, t.getNotes());
+            ps.setTimestamp(12, Timestamp.valueOf(t.getCreatedAt()));
+            ps.setString(13, t.getIdempotencyKey());
+        });
+    }
+
+    private void updateInventories(List<Long> products) {
+        List<Object[]> rows = new ArrayList<>(products.size());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Long productId : products) {
+            StockLedger.StockAccount account = stockLedger.peek(productId);
+            if (account == null) {
+                continue;
+            }
+            StockLevel level = account.visibleLevel();
+            rows.add(new Object[]{level.currentStock(), level.reservedStock(), level.availableStock(),
+                    StockLedger.determineStatus(level.currentStock(), account.minStock, account.status).name(),
+                    now, productId});
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_INVENTORY, rows);
+        }
+    }
+
+    private record PendingTransaction(InventoryTransaction transaction, long sequence) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.dumall.inventory.ledger;
+
+/**
+ * 某一时刻的商品库存水位（不可变，整体CAS替换）
+ * @param currentStock 当前库存
+ * @param reservedStock 预留库存
+ * @param sequence 产生该水位的变更序号（全局递增，同一商品内与变更先后一致）
+ */
+public record StockLevel(int currentStock, int reservedStock, long sequence) {
+
+    public int availableStock() {
+        return currentStock - reservedStock;
+    }
+}
@@ -0,0 +1,133 @@
+package com.dumall.inventory.ledger;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 热点商品的库存分片
+ * 每个分片持有从账户可用库存租出、尚未分配给预留的数量，线程按ID固定落在一个分片上，
+ * 分片之间相互独立地CAS扣减；分片耗尽时先向账户续租，账户不足再从其他分片调拨
+ */
+final class StockStripes {
+
+    /**
+     * 相邻分片间隔8个long（64字节），避免伪共享
+     */
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray slots;
+    private final int stripes;
+    private final int leaseSize;
+
+    StockStripes(int stripes, int leaseSize) {
+        this.slots = new AtomicLongArray(stripes * PADDING);
+        this.stripes = stripes;
+        this.leaseSize = leaseSize;
+    }
+
+    int stripes() {
+        return stripes;
+    }
+
+    /**
+     * 单次续租数量（不少于本次请求数量）
+     */
+    int leaseSize(int quantity) {
+        return Math.max(leaseSize, quantity);
+    }
+
+    /**
+     * 当前线程所在的分片
+     */
+    int home() {
+        return (int) (Thread.currentThread().getId() % stripes);
+    }
+
+    /**
+     * 从分片扣减
+     * @return 分片余量足够并扣减成功
+     */
+    boolean tryTake(int stripe, int quantity) {
+        int index = stripe * PADDING;
+        while (true) {
+            long remaining = slots.get(index);
+            if (remaining < quantity) {
+                return false;
+            }
+            if (slots.compareAndSet(index, remaining, remaining - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    void put(int stripe, int quantity) {
+        slots.getAndAdd(stripe * PADDING, quantity);
+    }
+
+    /**
+     * 从其他分片向目标分片调拨：优先取余量最多的分片的一半（不少于所需数量）；
+     * 没有单个分片足够时把其他分片全部归集到目标分片
+     * @return 调拨后目标分片可能满足所需数量
+     */
+    boolean steal(int stripe, int quantity) {
+        int richest = -1;
+        long most = 0;
+        long total = slots.get(stripe * PADDING);
+        for (int i = 0; i < stripes; i++) {
+            if (i == stripe) {
+                continue;
+            }
+            long remaining = slots.get(i * PADDING);
+            total += remaining;
+            if (remaining > most) {
+                richest = i;
+                most = remaining;
+            }
+        }
+        if (total < quantity) {
+            return false;
+        }
+        if (most >= quantity) {
+            long moved = Math.max(quantity, most / 2);
+            int index = richest * PADDING;
+            while (true) {
+                long remaining = slots.get(index);
+                if (remaining < moved) {
+                    break;
+                }
+                if (slots.compareAndSet(index, remaining, remaining - moved)) {
+                    slots.getAndAdd(stripe * PADDING, moved);
+                    return true;
+                }
+            }
+        }
+        for (int i = 0; i < stripes; i++) {
+            if (i != stripe) {
+                slots.getAndAdd(stripe * PADDING, slots.getAndSet(i * PADDING, 0));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 收回全部分片余量
+     * @return 收回的数量
+     */
+    int drainAll() {
+        long drained = 0;
+        for (int i = 0; i < stripes; i++) {
+            drained += slots.getAndSet(i * PADDING, 0);
+        }
+        return (int) drained;
+    }
+
+    /**
+     * 已租出尚未分配的数量
+     */
+    int unassigned() {
+        long sum = 0;
+        for (int i = 0; i < stripes; i++) {
+            sum += slots.get(i * PADDING);
+        }
+        return (int) sum;
+    }
+}
@@ -2,13 +2,19 @@ package com.dumall.inventory.repository;
 
 import com.dumall.inventory.entity.InventoryTransaction;
 import com.dumall.inventory.entity.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 库存交易记录数据访问层
@@ -36,6 +42,11 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
      */
     List<InventoryTransaction> findByReferenceType(String referenceType);
 
+    /**
+     * 根据幂等键查找（唯一索引）
+     */
+    Optional<InventoryTransaction> findByIdempotencyKey(String idempotencyKey);
+
     /**
      * 根据操作员ID查找
      */
@@ -79,4 +90,63 @@ public interface InventoryTransactionRepository extends JpaRepository<InventoryT
     @Query("SELECT COALESCE(SUM(t.quantity), 0) FROM InventoryTransaction t " +
            "WHERE t.productId = :productId AND t.transactionType = 'RELEASE'")
     Integer getTotalReleasedQuantity(@Param("productId") Long productId);
-} 
\ No newline at end of file
+
+    /**
+     * 按创建时间倒序游标分页查询时间窗口[from, to)内的交易记录
+     * @param from 窗口起点（含）
+     * @param to 窗口终点（不含）
+     * @param beforeCreatedAt 上一页最后一条记录的创建时间
+     * @param beforeId 上一页最后一条记录的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @return 交易记录列表
+     */
+    @Query("SELECT t FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "AND t.createdAt <= :beforeCreatedAt AND (t.createdAt < :beforeCreatedAt OR t.id < :beforeId) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<InventoryTransaction> findPage(@Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                        @Param("beforeId") Long beforeId,
+                                        Pageable pageable);
+
+    /**
+     * 按商品ID、创建时间倒序游标分页查询时间窗口[from, to)内的交易记录
+     */
+    @Query("SELECT t FROM InventoryTransaction t WHERE t.productId = :productId " +
+           "AND t.createdAt >= :from AND t.createdAt < :to " +
+           "AND t.createdAt <= :beforeCreatedAt AND (t.createdAt < :beforeCreatedAt OR t.id < :beforeId) " +
+           "ORDER BY t.createdAt DESC, t.id DESC")
+    List<InventoryTransaction> findPageByProductId(@Param("productId") Long productId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+                                                   @Param("beforeId") Long beforeId,
+                                                   Pageable pageable);
+
+    /**
+     * 按创建时间顺序流式读取时间窗口[from, to)内的交易记录（游标方式，固定抓取大小），需在只读事务中消费
+     * @return 交易记录流
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM InventoryTransaction t WHERE t.createdAt >= :from AND t.createdAt < :to " +
+           "ORDER BY t.createdAt, t.id")
+    Stream<InventoryTransaction> streamByCreatedAtWindow(@Param("from") LocalDateTime from,
+                                                         @Param("to") LocalDateTime to);
+
+    /**
+     * 按创建时间顺序流式读取商品在时间窗口[from, to)内的交易记录，需在只读事务中消费
+     * @return 交易记录流
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM InventoryTransaction t WHERE t.productId = :productId " +
+           "AND t.createdAt >= :from AND t.createdAt < :to ORDER BY t.createdAt, t.id")
+    Stream<InventoryTransaction> streamByProductIdAndCreatedAtWindow(@Param("productId") Long productId,
+                                                                     @Param("from") LocalDateTime from,
+                                                                     @Param("to") LocalDateTime to);
+}
@@ -0,0 +1,82 @@
+package com.dumall.inventory.reservation;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 哈希时间轮
+ * 到期时间按刻度映射到环形槽位，加入为O(1)；每个刻度只检查一个槽位，超过一圈的条目留在槽位中等待后续轮次。
+ * 条目不支持删除，调用方在到期时自行判断是否仍然有效（惰性取消）
+ * @param <K> 条目类型
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Queue<Entry<K>>[] buckets;
+    private final int mask;
+
+    /**
+     * 已处理到的刻度（只由advance调用方推进）
+     */
+    private volatile long currentTick;
+
+    /**
+     * @param tickMillis 刻度时长
+     * @param wheelSize 槽位数量（向上取整为2的幂）
+     * @param startMillis 起始时间
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Queue[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 加入条目
+     * @param key 条目
+     * @param deadlineMillis 到期时间
+     */
+    public void add(K key, long deadlineMillis) {
+        long tick = Math.max((deadlineMillis - startMillis + tickMillis - 1) / tickMillis, currentTick + 1);
+        buckets[(int) (tick & mask)].add(new Entry<>(key, tick));
+    }
+
+    /**
+     * 推进到指定时间，取出其间到期的条目
+     * @param nowMillis 当前时间
+     * @return 到期条目
+     */
+    public List<K> advance(long nowMillis) {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        List<K> expired = new ArrayList<>();
+        // 落后超过一圈时每个槽位只需检查一次
+        long from = Math.max(currentTick + 1, targetTick - mask);
+        for (long tick = from; tick <= targetTick; tick++) {
+            Iterator<Entry<K>> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Entry<K> entry = it.next();
+                if (entry.deadlineTick() <= targetTick) {
+                    it.remove();
+                    expired.add(entry.key());
+                }
+            }
+        }
+        if (targetTick > currentTick) {
+            currentTick = targetTick;
+        }
+        return expired;
+    }
+
+    private record Entry<K>(K key, long deadlineTick) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.dumall.inventory.reservation;
+
+import java.util.SortedMap;
+
+/**
+ * 一次预留（同一参考ID下的全部商品，不可变）
+ * @param referenceId 参考ID（订单ID等）
+ * @param quantities 商品ID到预留数量（按商品ID升序）
+ * @param deadlineMillis 到期时间
+ */
+public record Reservation(String referenceId, SortedMap<Long, Integer> quantities, long deadlineMillis) {
+}
@@ -0,0 +1,192 @@
+package com.dumall.inventory.reservation;
+
+import com.dumall.inventory.entity.InventoryTransaction;
+import com.dumall.inventory.entity.TransactionType;
+import com.dumall.inventory.ledger.StockChange;
+import com.dumall.inventory.ledger.StockLedger;
+import com.dumall.inventory.ledger.StockLedgerFlusher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 预留有效期管理
+ * 每个参考ID的预留带有到期时间并登记到时间轮；每个刻度只检查一个槽位，到期且未被确认的预留分批释放，
+ * 确认后的预留转为出库。预留只保存在内存中，重启前的预留不会自动释放，只能按参考ID手动释放（不再按登记数量封顶）
+ */
+@Slf4j
+@Component
+public class ReservationManager {
+
+    private final StockLedger stockLedger;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final long ttlMillis;
+    private final int releaseBatchSize;
+    private final HashedTimingWheel<String> wheel;
+
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    public ReservationManager(StockLedger stockLedger,
+                              StockLedgerFlusher stockLedgerFlusher,
+                              @Value("${inventory.reservation.ttl-seconds:900}") long ttlSeconds,
+                              @Value("${inventory.reservation.tick-millis:1000}") long tickMillis,
+                              @Value("${inventory.reservation.wheel-size:512}") int wheelSize,
+                              @Value("${inventory.reservation.release-batch-size:500}") int releaseBatchSize) {
+        this.stockLedger = stockLedger;
+        this.stockLedgerFlusher = stockLedgerFlusher;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.releaseBatchSize = releaseBatchSize;
+        this.wheel = new HashedTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * 登记预留；同一参考ID再次预留时数量合并，到期时间不变
+     * @param referenceId 参考ID
+     * @param quantities 商品ID到预留数量
+     */
+    public void register(String referenceId, SortedMap<Long, Integer> quantities) {
+        long deadline = System.currentTimeMillis() + ttlMillis;
+        Reservation merged = reservations.merge(referenceId,
+                new Reservation(referenceId, Collections.unmodifiableSortedMap(new TreeMap<>(quantities)), deadline),
+                (existing, added) -> {
+                    SortedMap<Long, Integer> sum = new TreeMap<>(existing.quantities());
+                    added.quantities().forEach((productId, quantity) -> sum.merge(productId, quantity, Integer::sum));
+                    return new Reservation(referenceId, Collections.unmodifiableSortedMap(sum),
+                            existing.deadlineMillis());
+                });
+        if (merged.deadlineMillis() == deadline) {
+            wheel.add(referenceId, deadline);
+        }
+    }
+
+    /**
+     * 手动释放前从登记的预留中扣减（原子操作，扣减数量不超过登记数量）
+     * @param referenceId 参考ID
+     * @param productId 商品ID
+     * @param quantity 请求释放的数量
+     * @return 实际扣减的部分（只含该商品），没有登记时为null；台账释放失败时用putBack放回
+     */
+    public Reservation takeReleased(String referenceId, Long productId, int quantity) {
+        Reservation[] taken = new Reservation[1];
+        reservations.computeIfPresent(referenceId, (id, existing) -> {
+            Integer reserved = existing.quantities().get(productId);
+            if (reserved == null) {
+                return existing;
+            }
+            int amount = Math.min(reserved, quantity);
+            taken[0] = new Reservation(id, Collections.unmodifiableSortedMap(new TreeMap<>(Map.of(productId, amount))),
+                    existing.deadlineMillis());
+            SortedMap<Long, Integer> rest = new TreeMap<>(existing.quantities());
+            if (reserved > amount) {
+                rest.put(productId, reserved - amount);
+            } else {
+                rest.remove(productId);
+            }
+            return rest.isEmpty() ? null
+                    : new Reservation(id, Collections.unmodifiableSortedMap(rest), existing.deadlineMillis());
+        });
+        return taken[0];
+    }
+
+    /**
+     * 取出预留（确认时调用，取出后不会再到期释放）
+     * @param referenceId 参考ID
+     * @return 预留，不存在或已到期时为null
+     */
+    public Reservation take(String referenceId) {
+        return reservations.remove(referenceId);
+    }
+
+    /**
+     * 确认或释放失败时放回预留；期间同一参考ID又有新的登记时数量合并
+     * @param reservation 之前取出的预留（或其一部分）
+     */
+    public void putBack(Reservation reservation) {
+        Reservation merged = reservations.merge(reservation.referenceId(), reservation, (existing, back) -> {
+            SortedMap<Long, Integer> sum = new TreeMap<>(existing.quantities());
+            back.quantities().forEach((productId, quantity) -> sum.merge(productId, quantity, Integer::sum));
+            return new Reservation(existing.referenceId(), Collections.unmodifiableSortedMap(sum),
+                    existing.deadlineMillis());
+        });
+        if (merged == reservation) {
+            wheel.add(reservation.referenceId(), reservation.deadlineMillis());
+        }
+    }
+
+    /**
+     * 当前未到期的预留数
+     */
+    public int activeCount() {
+        return reservations.size();
+    }
+
+    /**
+     * 推进时间轮，释放到期的预留
+     */
+    @Scheduled(fixedRateString = "${inventory.reservation.tick-millis:1000}")
+    public synchronized void tick() {
+        long now = System.currentTimeMillis();
+        List<Reservation> expired = new ArrayList<>();
+        for (String referenceId : wheel.advance(now)) {
+            Reservation reservation = reservations.get(referenceId);
+            // 已确认、已释放或重新登记的条目在此惰性跳过
+            if (reservation != null && reservation.deadlineMillis() <= now
+                    && reservations.remove(referenceId, reservation)) {
+                expired.add(reservation);
+            }
+        }
+        if (!expired.isEmpty()) {
+            release(expired);
+        }
+    }
+
+    private void release(List<Reservation> expired) {
+        List<InventoryTransaction> transactions = new ArrayList<>();
+        List<Long> sequences = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Reservation reservation : expired) {
+            for (Map.Entry<Long, Integer> entry : reservation.quantities().entrySet()) {
+                StockChange change;
+                try {
+                    change = stockLedger.apply(entry.getKey(), TransactionType.RELEASE, entry.getValue());
+                } catch (RuntimeException e) {
+                    log.warn("到期预留释放失败: referenceId={}, productId={}, quantity={}, {}",
+                            reservation.referenceId(), entry.getKey(), entry.getValue(), e.getMessage());
+                    continue;
+                }
+                transactions.add(InventoryTransaction.builder()
+                        .productId(entry.getKey())
+                        .productName(change.productName())
+                        .transactionType(TransactionType.RELEASE)
+                        .quantity(entry.getValue())
+                        .beforeStock(change.before().currentStock())
+                        .afterStock(change.after().currentStock())
+                        .referenceId(reservation.referenceId())
+                        .referenceType("ORDER")
+                        .notes("预留超时自动释放")
+                        .createdAt(now)
+                        .build());
+                sequences.add(change.after().sequence());
+                if (transactions.size() >= releaseBatchSize) {
+                    stockLedgerFlusher.enqueueAll(transactions, sequences);
+                    transactions = new ArrayList<>();
+                    sequences = new ArrayList<>();
+                }
+            }
+        }
+        if (!transactions.isEmpty()) {
+            stockLedgerFlusher.enqueueAll(transactions, sequences);
+        }
+        log.info("到期预留已释放: {} 个", expired.size());
+    }
+}
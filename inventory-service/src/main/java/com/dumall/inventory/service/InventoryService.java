@@ -1,10 +1,15 @@
 package com.dumall.inventory.service;
 
+import com.dumall.inventory.dto.BatchReserveRequest;
 import com.dumall.inventory.dto.InventoryRequest;
+import com.dumall.inventory.dto.ProductConflictStats;
 import com.dumall.inventory.dto.StockAdjustmentRequest;
+import com.dumall.inventory.dto.TransactionPage;
 import com.dumall.inventory.entity.Inventory;
 import com.dumall.inventory.entity.InventoryTransaction;
 
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -63,29 +68,39 @@ public interface InventoryService {
     List<Inventory> searchInventories(String keyword);
 
     /**
-     * 库存调整
+     * 库存调整（带幂等键的重复请求返回首次的交易记录）
      */
     InventoryTransaction adjustStock(StockAdjustmentRequest request);
 
     /**
      * 预留库存
      */
-    InventoryTransaction reserveStock(Long productId, Integer quantity, String referenceId);
+    InventoryTransaction reserveStock(Long productId, Integer quantity, String referenceId, String idempotencyKey);
+
+    /**
+     * 批量预留库存（全部成功或全部失败）
+     */
+    List<InventoryTransaction> reserveStockBatch(BatchReserveRequest request);
+
+    /**
+     * 确认预留：参考ID下的全部预留转为出库
+     */
+    List<InventoryTransaction> confirmReservation(String referenceId);
 
     /**
      * 释放预留库存
      */
-    InventoryTransaction releaseStock(Long productId, Integer quantity, String referenceId);
+    InventoryTransaction releaseStock(Long productId, Integer quantity, String referenceId, String idempotencyKey);
 
     /**
      * 入库
      */
-    InventoryTransaction inboundStock(Long productId, Integer quantity, String referenceId);
+    InventoryTransaction inboundStock(Long productId, Integer quantity, String referenceId, String idempotencyKey);
 
     /**
      * 出库
      */
-    InventoryTransaction outboundStock(Long productId, Integer quantity, String referenceId);
+    InventoryTransaction outboundStock(Long productId, Integer quantity, String referenceId, String idempotencyKey);
 
     /**
      * 获取商品交易记录
@@ -97,6 +112,24 @@ public interface InventoryService {
      */
     List<InventoryTransaction> getAllTransactions();
 
+    /**
+     * 按创建时间倒序游标分页获取交易记录
+     * @param productId 商品ID（为空时查询全部商品）
+     * @param from 时间窗口起点（含，可为空）
+     * @param to 时间窗口终点（不含，可为空）
+     * @param beforeCreatedAt 上一页最后一条记录的创建时间（首页为空）
+     * @param beforeId 上一页最后一条记录的ID（首页为空）
+     * @param limit 页大小
+     */
+    TransactionPage getTransactionPage(Long productId, LocalDateTime from, LocalDateTime to,
+                                       LocalDateTime beforeCreatedAt, Long beforeId, int limit);
+
+    /**
+     * 以NDJSON格式流式导出时间窗口内的交易记录（按创建时间顺序）
+     * @return 导出的记录数量
+     */
+    long exportTransactions(Long productId, LocalDateTime from, LocalDateTime to, OutputStream out);
+
     /**
      * 删除库存记录
      */
@@ -111,4 +144,21 @@ public interface InventoryService {
      * 获取库存统计信息
      */
     InventoryStatistics getInventoryStatistics();
+
+    /**
+     * 开启热点商品分片模式（预留从多个内存分片独立扣减）
+     * @param productId 商品ID
+     * @param stripes 分片数（为空时使用默认配置）
+     */
+    Inventory enableHotSku(Long productId, Integer stripes);
+
+    /**
+     * 关闭热点商品分片模式
+     */
+    Inventory disableHotSku(Long productId);
+
+    /**
+     * 获取并发冲突最多的商品
+     */
+    List<ProductConflictStats> getConflictStats(int limit);
 } 
\ No newline at end of file
@@ -1,25 +1,55 @@
 package com.dumall.inventory.service.impl;
 
+import com.dumall.inventory.dto.BatchReserveRequest;
+import com.dumall.inventory.concurrency.ConflictMetrics;
+import com.dumall.inventory.concurrency.OptimisticRetryExecutor;
 import com.dumall.inventory.dto.InventoryRequest;
+import com.dumall.inventory.dto.ProductConflictStats;
 import com.dumall.inventory.dto.StockAdjustmentRequest;
+import com.dumall.inventory.dto.TransactionPage;
 import com.dumall.inventory.entity.Inventory;
 import com.dumall.inventory.entity.InventoryStatus;
 import com.dumall.inventory.entity.InventoryTransaction;
 import com.dumall.inventory.entity.TransactionType;
+import com.dumall.inventory.idempotency.IdempotencyRegistry;
+import com.dumall.inventory.journal.TransactionJournal;
+import com.dumall.inventory.ledger.StockChange;
+import com.dumall.inventory.ledger.StockLedger;
+import com.dumall.inventory.ledger.StockLedgerFlusher;
+import com.dumall.inventory.ledger.StockLevel;
 import com.dumall.inventory.repository.InventoryRepository;
 import com.dumall.inventory.repository.InventoryTransactionRepository;
+import com.dumall.inventory.reservation.Reservation;
+import com.dumall.inventory.reservation.ReservationManager;
 import com.dumall.inventory.service.InventoryService;
 import com.dumall.inventory.service.InventoryStatistics;
+import com.dumall.inventory.statistics.InventoryStatisticsTracker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 /**
  * 库存服务实现类
+ * 库存数量以内存台账StockLedger为准，变更由StockLedgerFlusher异步回写数据库
  */
 @Slf4j
 @Service
@@ -28,6 +58,28 @@ public class InventoryServiceImpl implements InventoryService {
 
     private final InventoryRepository inventoryRepository;
     private final InventoryTransactionRepository transactionRepository;
+    private final StockLedger stockLedger;
+    private final StockLedgerFlusher stockLedgerFlusher;
+    private final ReservationManager reservationManager;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final ConflictMetrics conflictMetrics;
+    private final InventoryStatisticsTracker statisticsTracker;
+    private final TransactionJournal transactionJournal;
+    private final IdempotencyRegistry idempotencyRegistry;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${inventory.transaction.page.max-limit:100}")
+    private int transactionPageMaxLimit;
+
+    @Value("${inventory.transaction.export.flush-rows:500}")
+    private int exportFlushRows;
+
+    /**
+     * 时间窗口未指定时的边界（早于/晚于任何交易记录）
+     */
+    private static final LocalDateTime MIN_CREATED_AT = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
 
     @Override
     @Transactional
@@ -55,187 +107,279 @@ public class InventoryServiceImpl implements InventoryService {
 
         inventory = inventoryRepository.save(inventory);
         updateInventoryStatus(inventory.getProductId());
+        stockLedger.register(inventory);
 
         return inventory;
     }
 
     @Override
-    @Transactional
     public Inventory updateInventory(Long id, InventoryRequest request) {
         log.info("更新库存记录: id={}", id);
 
-        Inventory inventory = inventoryRepository.findById(id)
+        Long productId = inventoryRepository.findById(id)
+                .map(Inventory::getProductId)
                 .orElseThrow(() -> new RuntimeException("库存记录不存在"));
 
-        inventory.setProductName(request.getProductName());
-        inventory.setCategory(request.getCategory());
-        inventory.setCurrentStock(request.getCurrentStock());
-        inventory.setMinStock(request.getMinStock());
-        inventory.setMaxStock(request.getMaxStock());
-        inventory.setUnitPrice(request.getUnitPrice());
-        inventory.setWarehouseLocation(request.getWarehouseLocation());
-        inventory.setStatus(request.getStatus());
-
-        inventory = inventoryRepository.save(inventory);
-        updateInventoryStatus(inventory.getProductId());
-
-        return inventory;
+        // 与台账回写并发时版本冲突，重新读取后重试；重试单元内只写数据库，不修改台账
+        Inventory updated = optimisticRetryExecutor.execute(productId, () -> {
+            Inventory inventory = inventoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("库存记录不存在"));
+
+            inventory.setProductName(request.getProductName());
+            inventory.setCategory(request.getCategory());
+            inventory.setCurrentStock(request.getCurrentStock());
+            inventory.setMinStock(request.getMinStock());
+            inventory.setMaxStock(request.getMaxStock());
+            inventory.setUnitPrice(request.getUnitPrice());
+            inventory.setWarehouseLocation(request.getWarehouseLocation());
+            // 预留库存以台账为准
+            inventory.setReservedStock(stockLedger.level(productId).reservedStock());
+            inventory.setStatus(request.getStatus());
+            inventory.setStatus(determineInventoryStatus(inventory));
+
+            return inventoryRepository.save(inventory);
+        });
+
+        // 提交成功后重置台账一次；提交与重置之间的回写可能写入旧水位，标记后由回写任务按台账重写
+        StockLevel level = stockLedger.reset(updated);
+        stockLedgerFlusher.markDirty(productId);
+        updated.setReservedStock(level.reservedStock());
+        updated.setAvailableStock(level.availableStock());
+        transactionJournal.awaitDurable();
+        return updated;
     }
 
     @Override
     public Inventory getInventory(Long id) {
         return inventoryRepository.findById(id)
+                .map(stockLedger::overlay)
                 .orElseThrow(() -> new RuntimeException("库存记录不存在"));
     }
 
     @Override
     public Inventory getInventoryByProductId(Long productId) {
         return inventoryRepository.findByProductId(productId)
+                .map(stockLedger::overlay)
                 .orElseThrow(() -> new RuntimeException("库存记录不存在"));
     }
 
     @Override
     public List<Inventory> getAllInventories() {
-        return inventoryRepository.findAll();
+        return overlay(inventoryRepository.findAll());
     }
 
     @Override
     public List<Inventory> getInventoriesByCategory(String category) {
-        return inventoryRepository.findByCategory(category);
+        return overlay(inventoryRepository.findByCategory(category));
     }
 
     @Override
     public List<Inventory> getInventoriesByStatus(String status) {
-        return inventoryRepository.findByStatus(InventoryStatus.valueOf(status.toUpperCase()));
+        return overlay(inventoryRepository.findByStatus(InventoryStatus.valueOf(status.toUpperCase())));
     }
 
     @Override
     public List<Inventory> getLowStockItems() {
-        return inventoryRepository.findLowStockItems();
+        return overlay(inventoryRepository.findLowStockItems());
     }
 
     @Override
     public List<Inventory> getOutOfStockItems() {
-        return inventoryRepository.findOutOfStockItems();
+        return overlay(inventoryRepository.findOutOfStockItems());
     }
 
     @Override
     public List<Inventory> searchInventories(String keyword) {
-        return inventoryRepository.findByProductNameContainingIgnoreCase(keyword);
+        return overlay(inventoryRepository.findByProductNameContainingIgnoreCase(keyword));
     }
 
     @Override
-    @Transactional
     public InventoryTransaction adjustStock(StockAdjustmentRequest request) {
         log.info("库存调整: productId={}, type={}, quantity={}", 
                 request.getProductId(), request.getTransactionType(), request.getQuantity());
+        return idempotencyRegistry.execute(request, () -> applyAdjustment(request));
+    }
 
-        Inventory inventory = getInventoryByProductId(request.getProductId());
-        int beforeStock = inventory.getCurrentStock();
-        int afterStock = beforeStock;
-
-        switch (request.getTransactionType()) {
-            case INBOUND:
-                afterStock += request.getQuantity();
-                break;
-            case OUTBOUND:
-                if (inventory.getAvailableStock() < request.getQuantity()) {
-                    throw new RuntimeException("库存不足");
-                }
-                afterStock -= request.getQuantity();
-                break;
-            case RESERVE:
-                if (inventory.getAvailableStock() < request.getQuantity()) {
-                    throw new RuntimeException("可预留库存不足");
-                }
-                inventory.setReservedStock(inventory.getReservedStock() + request.getQuantity());
-                break;
-            case RELEASE:
-                if (inventory.getReservedStock() < request.getQuantity()) {
-                    throw new RuntimeException("预留库存不足");
-                }
-                inventory.setReservedStock(inventory.getReservedStock() - request.getQuantity());
-                break;
-            case ADJUSTMENT:
-                afterStock = request.getQuantity();
-                break;
-            case RETURN:
-                afterStock += request.getQuantity();
-                break;
-            case DAMAGE:
-                if (inventory.getCurrentStock() < request.getQuantity()) {
-                    throw new RuntimeException("库存不足");
-                }
-                afterStock -= request.getQuantity();
-                break;
+    private InventoryTransaction applyAdjustment(StockAdjustmentRequest request) {
+        stockLedgerFlusher.ensureCapacity();
+        int quantity = request.getQuantity();
+        StockChange change;
+        Reservation taken = request.getTransactionType() == TransactionType.RELEASE && request.getReferenceId() != null
+                ? reservationManager.takeReleased(request.getReferenceId(), request.getProductId(), quantity)
+                : null;
+        if (taken != null) {
+            // 有登记的预留时先从中扣减，台账只释放实际扣减的数量，避免与到期释放或确认重复
+            quantity = taken.quantities().get(request.getProductId());
+            try {
+                change = stockLedger.apply(request.getProductId(), TransactionType.RELEASE, quantity);
+            } catch (RuntimeException e) {
+                reservationManager.putBack(taken);
+                throw e;
+            }
+        } else {
+            // 其他交易类型，以及没有登记的预留（初始数据、重启前或未带参考ID的预留）的释放直接作用于台账，
+            // 释放数量由台账按已分配的预留库存校验
+            change = stockLedger.apply(request.getProductId(), request.getTransactionType(), quantity);
+            if (request.getTransactionType() == TransactionType.RESERVE && request.getReferenceId() != null) {
+                reservationManager.register(request.getReferenceId(),
+                        new TreeMap<>(Map.of(request.getProductId(), quantity)));
+            }
         }
 
-        inventory.setCurrentStock(afterStock);
-        inventory = inventoryRepository.save(inventory);
-        updateInventoryStatus(inventory.getProductId());
-
-        // 创建交易记录
+        // 创建交易记录（由台账回写任务批量插入）
         InventoryTransaction transaction = InventoryTransaction.builder()
                 .productId(request.getProductId())
-                .productName(inventory.getProductName())
+                .productName(change.productName())
                 .transactionType(request.getTransactionType())
-                .quantity(request.getQuantity())
-                .beforeStock(beforeStock)
-                .afterStock(afterStock)
+                .quantity(quantity)
+                .beforeStock(change.before().currentStock())
+                .afterStock(change.after().currentStock())
                 .referenceId(request.getReferenceId())
                 .referenceType(request.getReferenceType())
                 .operatorId(request.getOperatorId())
                 .operatorName(request.getOperatorName())
                 .notes(request.getNotes())
+                .idempotencyKey(StringUtils.hasText(request.getIdempotencyKey())
+                        ? request.getIdempotencyKey() : null)
+                .createdAt(LocalDateTime.now())
                 .build();
 
-        return transactionRepository.save(transaction);
+        stockLedgerFlusher.enqueue(transaction, change.after().sequence());
+        transactionJournal.awaitDurable();
+        return transaction;
     }
 
     @Override
-    @Transactional
-    public InventoryTransaction reserveStock(Long productId, Integer quantity, String referenceId) {
+    public InventoryTransaction reserveStock(Long productId, Integer quantity, String referenceId,
+                                             String idempotencyKey) {
         StockAdjustmentRequest request = new StockAdjustmentRequest();
         request.setProductId(productId);
         request.setTransactionType(TransactionType.RESERVE);
         request.setQuantity(quantity);
         request.setReferenceId(referenceId);
+        request.setIdempotencyKey(idempotencyKey);
         request.setReferenceType("ORDER");
         return adjustStock(request);
     }
 
     @Override
-    @Transactional
-    public InventoryTransaction releaseStock(Long productId, Integer quantity, String referenceId) {
+    public List<InventoryTransaction> reserveStockBatch(BatchReserveRequest request) {
+        log.info("批量预留库存: referenceId={}, items={}", request.getReferenceId(), request.getItems().size());
+
+        // 同一商品合并为一条预留，按商品ID升序处理
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (BatchReserveRequest.Item item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        stockLedgerFlusher.ensureCapacity();
+        List<StockChange> changes = stockLedger.reserveAll(quantities);
+        reservationManager.register(request.getReferenceId(), quantities);
+
+        List<InventoryTransaction> transactions = new ArrayList<>(changes.size());
+        List<Long> sequences = new ArrayList<>(changes.size());
+        LocalDateTime now = LocalDateTime.now();
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            StockChange change = changes.get(i++);
+            transactions.add(InventoryTransaction.builder()
+                    .productId(entry.getKey())
+                    .productName(change.productName())
+                    .transactionType(TransactionType.RESERVE)
+                    .quantity(entry.getValue())
+                    .beforeStock(change.before().currentStock())
+                    .afterStock(change.after().currentStock())
+                    .referenceId(request.getReferenceId())
+                    .referenceType("ORDER")
+                    .createdAt(now)
+                    .build());
+            sequences.add(change.after().sequence());
+        }
+
+        stockLedgerFlusher.enqueueAll(transactions, sequences);
+        transactionJournal.awaitDurable();
+        return transactions;
+    }
+
+    @Override
+    public List<InventoryTransaction> confirmReservation(String referenceId) {
+        log.info("确认预留: referenceId={}", referenceId);
+
+        stockLedgerFlusher.ensureCapacity();
+        Reservation reservation = reservationManager.take(referenceId);
+        if (reservation == null) {
+            throw new RuntimeException("预留不存在或已过期");
+        }
+
+        List<StockChange> changes;
+        try {
+            changes = stockLedger.fulfilAll(reservation.quantities());
+        } catch (RuntimeException e) {
+            reservationManager.putBack(reservation);
+            throw e;
+        }
+
+        List<InventoryTransaction> transactions = new ArrayList<>(changes.size());
+        List<Long> sequences = new ArrayList<>(changes.size());
+        LocalDateTime now = LocalDateTime.now();
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : reservation.quantities().entrySet()) {
+            StockChange change = changes.get(i++);
+            transactions.add(InventoryTransaction.builder()
+                    .productId(entry.getKey())
+                    .productName(change.productName())
+                    .transactionType(TransactionType.OUTBOUND)
+                    .quantity(entry.getValue())
+                    .beforeStock(change.before().currentStock())
+                    .afterStock(change.after().currentStock())
+                    .referenceId(referenceId)
+                    .referenceType("ORDER")
+                    .notes("预留确认出库")
+                    .createdAt(now)
+                    .build());
+            sequences.add(change.after().sequence());
+        }
+
+        stockLedgerFlusher.enqueueAll(transactions, sequences);
+        transactionJournal.awaitDurable();
+        return transactions;
+    }
+
+    @Override
+    public InventoryTransaction releaseStock(Long productId, Integer quantity, String referenceId,
+                                             String idempotencyKey) {
         StockAdjustmentRequest request = new StockAdjustmentRequest();
         request.setProductId(productId);
         request.setTransactionType(TransactionType.RELEASE);
         request.setQuantity(quantity);
         request.setReferenceId(referenceId);
+        request.setIdempotencyKey(idempotencyKey);
         request.setReferenceType("ORDER");
         return adjustStock(request);
     }
 
     @Override
-    @Transactional
-    public InventoryTransaction inboundStock(Long productId, Integer quantity, String referenceId) {
+    public InventoryTransaction inboundStock(Long productId, Integer quantity, String referenceId,
+                                             String idempotencyKey) {
         StockAdjustmentRequest request = new StockAdjustmentRequest();
         request.setProductId(productId);
         request.setTransactionType(TransactionType.INBOUND);
         request.setQuantity(quantity);
         request.setReferenceId(referenceId);
+        request.setIdempotencyKey(idempotencyKey);
         request.setReferenceType("INBOUND");
         return adjustStock(request);
     }
 
     @Override
-    @Transactional
-    public InventoryTransaction outboundStock(Long productId, Integer quantity, String referenceId) {
+    public InventoryTransaction outboundStock(Long productId, Integer quantity, String referenceId,
+                                              String idempotencyKey) {
         StockAdjustmentRequest request = new StockAdjustmentRequest();
         request.setProductId(productId);
         request.setTransactionType(TransactionType.OUTBOUND);
         request.setQuantity(quantity);
         request.setReferenceId(referenceId);
+        request.setIdempotencyKey(idempotencyKey);
         request.setReferenceType("OUTBOUND");
         return adjustStock(request);
     }
@@ -251,61 +395,127 @@ public class InventoryServiceImpl implements InventoryService {
     }
 
     @Override
-    @Transactional
+    public TransactionPage getTransactionPage(Long productId, LocalDateTime from, LocalDateTime to,
+                                              LocalDateTime beforeCreatedAt, Long beforeId, int limit) {
+        log.info("游标分页获取交易记录: productId={}, from={}, to={}, beforeCreatedAt={}, beforeId={}, limit={}",
+                productId, from, to, beforeCreatedAt, beforeId, limit);
+        if (limit <= 0) {
+            throw new RuntimeException("页大小必须大于0");
+        }
+        if ((beforeCreatedAt == null) != (beforeId == null)) {
+            throw new RuntimeException("游标参数beforeCreatedAt和beforeId须同时提供");
+        }
+        LocalDateTime windowFrom = from != null ? from : MIN_CREATED_AT;
+        LocalDateTime windowTo = to != null ? to : MAX_CREATED_AT;
+        // 首页游标取窗口终点，配合 createdAt < to 的条件不会多取
+        LocalDateTime cursorCreatedAt = beforeCreatedAt != null ? beforeCreatedAt : windowTo;
+        Long cursorId = beforeId != null ? beforeId : Long.MAX_VALUE;
+        int pageSize = Math.min(limit, transactionPageMaxLimit);
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<InventoryTransaction> rows = productId == null
+                ? transactionRepository.findPage(windowFrom, windowTo, cursorCreatedAt, cursorId, pageable)
+                : transactionRepository.findPageByProductId(productId, windowFrom, windowTo,
+                        cursorCreatedAt, cursorId, pageable);
+        boolean hasMore = rows.size() > pageSize;
+        List<InventoryTransaction> items = hasMore ? rows.subList(0, pageSize) : rows;
+        InventoryTransaction last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return new TransactionPage(items, pageSize, hasMore,
+                last == null ? null : last.getCreatedAt(),
+                last == null ? null : last.getId());
+    }
+
+    /**
+     * 通过数据库游标逐行读取，写出后立即从持久化上下文分离，内存占用与记录总数无关
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long exportTransactions(Long productId, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        log.info("流式导出交易记录: productId={}, from={}, to={}", productId, from, to);
+        LocalDateTime windowFrom = from != null ? from : MIN_CREATED_AT;
+        LocalDateTime windowTo = to != null ? to : MAX_CREATED_AT;
+        long count = 0;
+        try (Stream<InventoryTransaction> transactions = productId == null
+                ? transactionRepository.streamByCreatedAtWindow(windowFrom, windowTo)
+                : transactionRepository.streamByProductIdAndCreatedAtWindow(productId, windowFrom, windowTo)) {
+            for (InventoryTransaction transaction : (Iterable<InventoryTransaction>) transactions::iterator) {
+                out.write(objectMapper.writeValueAsBytes(transaction));
+                out.write('\n');
+                entityManager.detach(transaction);
+                if (++count % exportFlushRows == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("导出交易记录失败", e);
+        }
+        log.info("流式导出交易记录完成: {} 条", count);
+        return count;
+    }
+
+    @Override
     public void deleteInventory(Long id) {
         log.info("删除库存记录: id={}", id);
-        inventoryRepository.deleteById(id);
+        inventoryRepository.findById(id).ifPresent(existing -> {
+            Long productId = existing.getProductId();
+            optimisticRetryExecutor.execute(productId, () -> {
+                inventoryRepository.findById(id).ifPresent(inventoryRepository::delete);
+                return null;
+            });
+            stockLedger.remove(productId);
+            conflictMetrics.remove(productId);
+        });
     }
 
     @Override
-    @Transactional
     public void updateInventoryStatus(Long productId) {
-        Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
-        if (inventoryOpt.isPresent()) {
-            Inventory inventory = inventoryOpt.get();
-            InventoryStatus newStatus = determineInventoryStatus(inventory);
-            if (inventory.getStatus() != newStatus) {
-                inventory.setStatus(newStatus);
-                inventoryRepository.save(inventory);
-                log.info("更新库存状态: productId={}, status={}", productId, newStatus);
+        optimisticRetryExecutor.execute(productId, () -> {
+            Optional<Inventory> inventoryOpt = inventoryRepository.findByProductId(productId);
+            if (inventoryOpt.isPresent()) {
+                Inventory inventory = stockLedger.overlay(inventoryOpt.get());
+                InventoryStatus newStatus = determineInventoryStatus(inventory);
+                if (inventory.getStatus() != newStatus) {
+                    inventory.setStatus(newStatus);
+                    inventoryRepository.save(inventory);
+                    log.info("更新库存状态: productId={}, status={}", productId, newStatus);
+                }
             }
-        }
+            return null;
+        });
+    }
+
+    @Override
+    public Inventory enableHotSku(Long productId, Integer stripes) {
+        log.info("开启热点商品分片模式: productId={}, stripes={}", productId, stripes);
+        stockLedger.enableStriping(productId, stripes);
+        return getInventoryByProductId(productId);
+    }
+
+    @Override
+    public Inventory disableHotSku(Long productId) {
+        log.info("关闭热点商品分片模式: productId={}", productId);
+        stockLedger.disableStriping(productId);
+        transactionJournal.awaitDurable();
+        return getInventoryByProductId(productId);
+    }
+
+    @Override
+    public List<ProductConflictStats> getConflictStats(int limit) {
+        return conflictMetrics.top(limit);
     }
 
     @Override
     public InventoryStatistics getInventoryStatistics() {
-        List<Inventory> allInventories = inventoryRepository.findAll();
-        
-        long totalProducts = allInventories.size();
-        long totalStock = allInventories.stream().mapToLong(Inventory::getCurrentStock).sum();
-        double totalValue = allInventories.stream()
-                .mapToDouble(i -> i.getCurrentStock() * i.getUnitPrice()).sum();
-        
-        long lowStockCount = inventoryRepository.findLowStockItems().size();
-        long outOfStockCount = inventoryRepository.findOutOfStockItems().size();
-        long normalStockCount = allInventories.stream()
-                .filter(i -> i.getStatus() == InventoryStatus.ACTIVE).count();
-        long discontinuedCount = allInventories.stream()
-                .filter(i -> i.getStatus() == InventoryStatus.DISCONTINUED).count();
-
-        return InventoryStatistics.builder()
-                .totalProducts(totalProducts)
-                .totalStock(totalStock)
-                .totalValue(totalValue)
-                .lowStockCount(lowStockCount)
-                .outOfStockCount(outOfStockCount)
-                .normalStockCount(normalStockCount)
-                .discontinuedCount(discontinuedCount)
-                .build();
+        return statisticsTracker.snapshot();
     }
 
     private InventoryStatus determineInventoryStatus(Inventory inventory) {
-        if (inventory.getCurrentStock() == 0) {
-            return InventoryStatus.OUT_OF_STOCK;
-        } else if (inventory.getCurrentStock() <= inventory.getMinStock()) {
-            return InventoryStatus.LOW_STOCK;
-        } else {
-            return InventoryStatus.ACTIVE;
-        }
+        return StockLedger.determineStatus(inventory.getCurrentStock(), inventory.getMinStock(),
+                inventory.getStatus());
+    }
+
+    private List<Inventory> overlay(List<Inventory> inventories) {
+        inventories.forEach(stockLedger::overlay);
+        return inventories;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.dumall.inventory.statistics;
+
+import com.dumall.inventory.entity.Inventory;
+import com.dumall.inventory.ledger.StockLedger;
+import com.dumall.inventory.repository.InventoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 库存统计全量校对
+ * 定期读取全部库存记录（数量以台账为准）重算统计，与增量统计比较，发现偏差时修正
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class InventoryStatisticsReconciler {
+
+    private final InventoryRepository inventoryRepository;
+    private final StockLedger stockLedger;
+    private final InventoryStatisticsTracker statisticsTracker;
+
+    @Scheduled(initialDelayString = "${inventory.statistics.reconcile-interval-millis:300000}",
+               fixedDelayString = "${inventory.statistics.reconcile-interval-millis:300000}")
+    public void reconcile() {
+        long modifications = statisticsTracker.modifications();
+        long[] actual = new long[InventoryStatisticsTracker.SIZE];
+        for (Inventory inventory : inventoryRepository.findAll()) {
+            stockLedger.overlay(inventory);
+            long[] figures = InventoryStatisticsTracker.figures(inventory.getCurrentStock(),
+                    inventory.getMinStock(), inventory.getUnitPrice(), inventory.getStatus());
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] += figures[i];
+            }
+        }
+        if (!statisticsTracker.reconcile(actual, modifications)) {
+            log.debug("库存统计校对期间有库存变更，本轮跳过");
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.dumall.inventory.statistics;
+
+import com.dumall.inventory.entity.InventoryStatus;
+import com.dumall.inventory.ledger.StockLedger;
+import com.dumall.inventory.service.InventoryStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 库存统计增量维护
+ * 每个商品对统计的贡献是一个向量（商品数、库存、价值、各类状态计数），库存或参数变化时只累加前后贡献之差，
+ * 查询为O(1)；InventoryStatisticsReconciler定期全量重算，发现偏差时修正并计数
+ */
+@Slf4j
+@Component
+public class InventoryStatisticsTracker {
+
+    static final int PRODUCTS = 0;
+    static final int STOCK = 1;
+    static final int VALUE_CENTS = 2;
+    static final int LOW_STOCK = 3;
+    static final int OUT_OF_STOCK = 4;
+    static final int NORMAL = 5;
+    static final int DISCONTINUED = 6;
+    static final int SIZE = 7;
+
+    private final LongAdder[] totals = new LongAdder[SIZE];
+
+    /**
+     * 变更次数，全量重算前后不变时才比较（避免把重算期间的变更误判为偏差）
+     */
+    private final LongAdder modifications = new LongAdder();
+
+    private final Counter driftCounter;
+
+    public InventoryStatisticsTracker(MeterRegistry meterRegistry) {
+        for (int i = 0; i < SIZE; i++) {
+            totals[i] = new LongAdder();
+        }
+        this.driftCounter = Counter.builder("inventory.statistics.drift")
+                .description("全量重算发现增量统计偏差的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 新增一个商品
+     */
+    public void add(int currentStock, int minStock, double unitPrice, InventoryStatus status) {
+        apply(figures(currentStock, minStock, unitPrice, status), 1);
+    }
+
+    /**
+     * 移除一个商品
+     */
+    public void remove(int currentStock, int minStock, double unitPrice, InventoryStatus status) {
+        apply(figures(currentStock, minStock, unitPrice, status), -1);
+    }
+
+    /**
+     * 商品库存或参数变化
+     */
+    public void update(int oldStock, int oldMinStock, double oldUnitPrice, InventoryStatus oldStatus,
+                       int newStock, int newMinStock, double newUnitPrice, InventoryStatus newStatus) {
+        long[] before = figures(oldStock, oldMinStock, oldUnitPrice, oldStatus);
+        long[] after = figures(newStock, newMinStock, newUnitPrice, newStatus);
+        for (int i = 0; i < SIZE; i++) {
+            if (after[i] != before[i]) {
+                totals[i].add(after[i] - before[i]);
+            }
+        }
+        modifications.increment();
+    }
+
+    /**
+     * 当前统计
+     */
+    public InventoryStatistics snapshot() {
+        long[] current = sums();
+        return InventoryStatistics.builder()
+                .totalProducts(current[PRODUCTS])
+                .totalStock(current[STOCK])
+                .totalValue(current[VALUE_CENTS] / 100.0)
+                .lowStockCount(current[LOW_STOCK])
+                .outOfStockCount(current[OUT_OF_STOCK])
+                .normalStockCount(current[NORMAL])
+                .discontinuedCount(current[DISCONTINUED])
+                .build();
+    }
+
+    long modifications() {
+        return modifications.sum();
+    }
+
+    /**
+     * 用全量重算结果校正
+     * @param actual 全量重算的统计向量
+     * @param modificationsBefore 重算开始前的变更次数
+     * @return 是否完成比较（重算期间有变更时跳过）
+     */
+    boolean reconcile(long[] actual, long modificationsBefore) {
+        if (modifications.sum() != modificationsBefore) {
+            return false;
+        }
+        long[] current = sums();
+        if (Arrays.equals(current, actual)) {
+            return true;
+        }
+        log.warn("库存统计存在偏差，已按全量重算结果修正: 增量={}, 全量={}",
+                Arrays.toString(current), Arrays.toString(actual));
+        for (int i = 0; i < SIZE; i++) {
+            totals[i].add(actual[i] - current[i]);
+        }
+        driftCounter.increment();
+        return true;
+    }
+
+    /**
+     * 单个商品对统计的贡献
+     * @param status 库存记录中保存的状态（停售由人工设置，不能从数量推导）
+     */
+    static long[] figures(int currentStock, int minStock, double unitPrice, InventoryStatus status) {
+        long[] figures = new long[SIZE];
+        figures[PRODUCTS] = 1;
+        figures[STOCK] = currentStock;
+        figures[VALUE_CENTS] = Math.round(unitPrice * 100) * currentStock;
+        figures[LOW_STOCK] = currentStock <= minStock ? 1 : 0;
+        figures[OUT_OF_STOCK] = currentStock == 0 ? 1 : 0;
+        InventoryStatus effective = StockLedger.determineStatus(currentStock, minStock, status);
+        figures[NORMAL] = effective == InventoryStatus.ACTIVE ? 1 : 0;
+        figures[DISCONTINUED] = effective == InventoryStatus.DISCONTINUED ? 1 : 0;
+        return figures;
+    }
+
+    private void apply(long[] figures, int sign) {
+        for (int i = 0; i < SIZE; i++) {
+            if (figures[i] != 0) {
+                totals[i].add(sign * figures[i]);
+            }
+        }
+        modifications.increment();
+    }
+
+    private long[] sums() {
+        long[] sums = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            sums[i] = totals[i].sum();
+        }
+        return sums;
+    }
+}
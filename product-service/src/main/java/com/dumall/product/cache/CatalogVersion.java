@@ -0,0 +1,39 @@
+package com.dumall.product.cache;
+
+import com.dumall.product.event.ProductChangeEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商品目录版本号
+ * 任一商品变更提交后递增，作为列表类接口的ETag；
+ * 附带启动时间戳，服务重启（内存库重建）后旧ETag自然失效
+ */
+@Component
+public class CatalogVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        version.incrementAndGet();
+    }
+
+    /**
+     * 当前版本号
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 当前版本对应的强ETag
+     * 必须在读取数据之前获取，保证返回的数据不旧于ETag所标识的版本
+     */
+    public String etag() {
+        return "\"catalog-" + epoch + "-" + version.get() + "\"";
+    }
+}
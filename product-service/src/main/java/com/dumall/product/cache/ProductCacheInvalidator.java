@@ -0,0 +1,66 @@
+package com.dumall.product.cache;
+
+import com.dumall.product.config.CacheConfig;
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 商品缓存失效处理
+ * 在写事务提交后失效对应的商品详情和分类列表（新旧分类都会失效），
+ * 避免事务提交前被并发读重新加载旧数据
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        Product cached = cachedProduct(event.getProductId());
+        evict(CacheConfig.PRODUCTS, event.getProductId());
+
+        if (event.getProduct() != null) {
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, event.getProduct().getCategory());
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, event.getPreviousCategory());
+        } else if (event.getPreviousCategory() != null) {
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, event.getPreviousCategory());
+        } else if (cached != null) {
+            // 条件库存更新不携带分类，借助已缓存的商品定位分类
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, cached.getCategory());
+        } else {
+            clear(CacheConfig.PRODUCTS_BY_CATEGORY);
+        }
+    }
+
+    private Product cachedProduct(Long id) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        return cache == null ? null : cache.get(id, Product.class);
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            log.debug("清空缓存: {}", cacheName);
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        if (key == null) {
+            return;
+        }
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            log.debug("失效缓存: {} -> {}", cacheName, key);
+            cache.evict(key);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.dumall.product.cache;
+
+import com.dumall.product.entity.Product;
+import com.dumall.product.popularity.ProductPopularityTracker;
+import com.dumall.product.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 缓存预热
+ * 启动完成后恢复上次运行保存的热门商品，预先加载其商品详情和所在分类的列表缓存；
+ * 预热完成前健康检查返回OUT_OF_SERVICE，负载均衡不会把流量导入冷缓存的实例
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductCacheWarmer implements HealthIndicator {
+
+    /**
+     * 单次批量查询的商品数量（不超过product.batch.max-ids）
+     */
+    private static final int BATCH_SIZE = 100;
+
+    private final ProductPopularityTracker productPopularityTracker;
+    private final ProductService productService;
+
+    private volatile boolean warmedUp;
+    private volatile int warmedProducts;
+    private volatile int warmedCategories;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        try {
+            List<Long> ids = productPopularityTracker.restore();
+            Set<String> categories = new LinkedHashSet<>();
+            int products = 0;
+            for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                for (Product product : productService.getProductsByIds(batch).getProducts()) {
+                    products++;
+                    if (product.getCategory() != null) {
+                        categories.add(product.getCategory());
+                    }
+                }
+            }
+            categories.forEach(productService::getProductsByCategory);
+            warmedProducts = products;
+            warmedCategories = categories.size();
+            log.info("缓存预热完成: {} 个商品, {} 个分类, 耗时 {} ms",
+                    products, categories.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("缓存预热失败，以冷缓存启动", e);
+        } finally {
+            warmedUp = true;
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (!warmedUp) {
+            return Health.outOfService().withDetail("cache", "warming up").build();
+        }
+        return Health.up()
+                .withDetail("warmedProducts", warmedProducts)
+                .withDetail("warmedCategories", warmedCategories)
+                .build();
+    }
+}
@@ -0,0 +1,61 @@
+package com.dumall.product.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 本地缓存配置
+ * 缓存按容量和TTL淘汰，并开启统计，命中/未命中/淘汰次数通过actuator metrics暴露（cache.gets、cache.evictions）
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * 商品详情缓存（key: 商品ID）
+     */
+    public static final String PRODUCTS = "products";
+
+    /**
+     * 分类商品列表缓存（key: 分类名称）
+     */
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+
+    @Value("${product.cache.product.max-size:10000}")
+    private long productMaxSize;
+
+    @Value("${product.cache.product.ttl:10m}")
+    private Duration productTtl;
+
+    @Value("${product.cache.category.max-size:200}")
+    private long categoryMaxSize;
+
+    @Value("${product.cache.category.ttl:5m}")
+    private Duration categoryTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // 只使用下面显式注册的缓存，避免拼写错误时静默创建无界缓存
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(productMaxSize)
+                .expireAfterWrite(productTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(PRODUCTS_BY_CATEGORY, Caffeine.newBuilder()
+                .maximumSize(categoryMaxSize)
+                .expireAfterWrite(categoryTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
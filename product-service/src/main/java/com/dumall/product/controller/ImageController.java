@@ -1,30 +1,55 @@
 package com.dumall.product.controller;
 
+import com.dumall.product.service.PlaceholderImageService;
+import com.dumall.product.service.PlaceholderImageService.PlaceholderImage;
+import com.dumall.product.service.PlaceholderImageService.PlaceholderKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 /**
  * 图片控制器 - 生成占位图片
  */
+@Slf4j
 @RestController
 @RequestMapping("/api/placeholder")
+@RequiredArgsConstructor
 public class ImageController {
 
+    private static final Pattern HEX_COLOR = Pattern.compile("[0-9a-fA-F]{6}");
+
+    private final PlaceholderImageService placeholderImageService;
+
+    @Value("${product.placeholder.max-width:2000}")
+    private int maxWidth;
+
+    @Value("${product.placeholder.max-height:2000}")
+    private int maxHeight;
+
+    @Value("${product.placeholder.max-text-length:50}")
+    private int maxTextLength;
+
     /**
      * 生成占位图片
-     * 
+     * 相同参数的图片内容固定，因此返回长期缓存头和ETag
+     *
      * @param width     宽度
      * @param height    高度
      * @param bgColor   背景色
      * @param textColor 文字颜色
-     * @param text      文字内容
+     * @param text      文字内容（仅做长度校验，不参与渲染）
      * @return 图片数据
      */
     @GetMapping("/{width}/{height}/{bgColor}/{textColor}")
@@ -33,45 +58,34 @@ public class ImageController {
             @PathVariable int height,
             @PathVariable String bgColor,
             @PathVariable String textColor,
-            @RequestParam(defaultValue = "Placeholder") String text) {
-
-        try {
-            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = image.createGraphics();
+            @RequestParam(defaultValue = "Placeholder") String text,
+            WebRequest webRequest) {
 
-            // 设置背景色
-            g2d.setColor(Color.decode("#" + bgColor));
-            g2d.fillRect(0, 0, width, height);
-
-            // 绘制简单的几何图形作为占位符
-            g2d.setColor(Color.decode("#" + textColor));
-            g2d.setStroke(new BasicStroke(3));
-
-            // 绘制边框
-            g2d.drawRect(10, 10, width - 20, height - 20);
-
-            // 绘制对角线
-            g2d.drawLine(10, 10, width - 10, height - 10);
-            g2d.drawLine(width - 10, 10, 10, height - 10);
-
-            // 绘制中心圆
-            int centerX = width / 2;
-            int centerY = height / 2;
-            int radius = Math.min(width, height) / 4;
-            g2d.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
-
-            g2d.dispose();
+        if (width <= 0 || height <= 0 || width > maxWidth || height > maxHeight
+                || !HEX_COLOR.matcher(bgColor).matches() || !HEX_COLOR.matcher(textColor).matches()
+                || text.length() > maxTextLength) {
+            return ResponseEntity.badRequest().build();
+        }
 
-            // 转换为字节数组
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "PNG", baos);
+        try {
+            PlaceholderImage image = placeholderImageService.getPlaceholder(new PlaceholderKey(width, height,
+                    bgColor.toLowerCase(Locale.ROOT), textColor.toLowerCase(Locale.ROOT)));
 
+            if (webRequest.checkNotModified(image.etag())) {
+                return null;
+            }
             return ResponseEntity.ok()
                     .contentType(MediaType.IMAGE_PNG)
-                    .body(baos.toByteArray());
+                    .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable())
+                    .eTag(image.etag())
+                    .body(image.data());
 
-        } catch (IOException e) {
+        } catch (RejectedExecutionException | TimeoutException e) {
+            log.warn("占位图片渲染繁忙: {}x{}", width, height);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (RuntimeException e) {
+            log.error("占位图片渲染失败: {}x{}", width, height, e);
             return ResponseEntity.internalServerError().build();
         }
     }
-}
\ No newline at end of file
+}
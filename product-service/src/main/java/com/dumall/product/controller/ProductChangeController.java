@@ -0,0 +1,132 @@
+package com.dumall.product.controller;
+
+import com.dumall.common.exception.BusinessException;
+import com.dumall.common.response.ApiResponse;
+import com.dumall.product.dto.ProductChangeBatch;
+import com.dumall.product.feed.ProductChangeFeed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商品变更流控制器
+ * 下游（如库存服务的冗余商品信息）从上次的偏移量增量同步，替代全量轮询商品列表
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/products/changes")
+@RequiredArgsConstructor
+public class ProductChangeController {
+
+    private final ProductChangeFeed productChangeFeed;
+
+    @Value("${product.feed.max-batch:500}")
+    private int maxBatch;
+
+    @Value("${product.feed.max-wait-millis:60000}")
+    private long maxWaitMillis;
+
+    @Value("${product.feed.sse-timeout-millis:1800000}")
+    private long sseTimeoutMillis;
+
+    /**
+     * 拉取变更（长轮询）
+     * 没有新变更时最多等待waitMillis毫秒，期间有变更提交立即返回
+     *
+     * @param after      已消费的最后序号
+     * @param limit      最多读取的变更条数
+     * @param waitMillis 等待时间（0表示立即返回）
+     * @return 变更批次
+     */
+    @GetMapping
+    public DeferredResult<ApiResponse<ProductChangeBatch>> getChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestParam(defaultValue = "0") long waitMillis) {
+        log.debug("拉取商品变更: after={}, limit={}, waitMillis={}", after, limit, waitMillis);
+        int batchLimit = batchLimit(limit);
+        long wait = Math.min(Math.max(waitMillis, 0), maxWaitMillis);
+
+        DeferredResult<ApiResponse<ProductChangeBatch>> result = new DeferredResult<>(wait > 0 ? wait : null);
+        ProductChangeBatch batch = productChangeFeed.read(after, batchLimit);
+        if (wait == 0 || !batch.getChanges().isEmpty() || batch.getTruncated()) {
+            result.setResult(ApiResponse.success(batch));
+            return result;
+        }
+
+        Runnable callback = () -> result.setResult(ApiResponse.success(productChangeFeed.read(after, batchLimit)));
+        result.onTimeout(() -> result.setResult(ApiResponse.success(productChangeFeed.read(after, batchLimit))));
+        result.onCompletion(() -> productChangeFeed.cancel(callback));
+        productChangeFeed.awaitAfter(after, callback);
+        return result;
+    }
+
+    /**
+     * 订阅变更（SSE）
+     * 每个事件为一个变更批次，事件ID为批次的nextAfter，断线重连时通过Last-Event-ID续传
+     *
+     * @param after       已消费的最后序号
+     * @param limit       单个事件最多包含的变更条数
+     * @param lastEventId 断线重连时浏览器自动携带的最后事件ID
+     * @return SSE连接
+     */
+    @GetMapping("/stream")
+    public SseEmitter streamChanges(
+            @RequestParam(defaultValue = "0") long after,
+            @RequestParam(defaultValue = "500") int limit,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        log.info("订阅商品变更: after={}, lastEventId={}", after, lastEventId);
+        int batchLimit = batchLimit(limit);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMillis);
+        AtomicLong cursor = new AtomicLong(lastEventId != null ? lastEventId : after);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Runnable push = new Runnable() {
+            @Override
+            public void run() {
+                if (closed.get()) {
+                    return;
+                }
+                try {
+                    ProductChangeBatch batch = productChangeFeed.read(cursor.get(), batchLimit);
+                    if (!batch.getChanges().isEmpty() || batch.getTruncated()) {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(batch.getNextAfter()))
+                                .name("changes")
+                                .data(batch));
+                    }
+                    cursor.set(batch.getNextAfter());
+                    productChangeFeed.awaitAfter(cursor.get(), this);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("商品变更订阅已断开: {}", e.getMessage());
+                    closed.set(true);
+                    emitter.completeWithError(e);
+                }
+            }
+        };
+
+        Runnable close = () -> {
+            closed.set(true);
+            productChangeFeed.cancel(push);
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(e -> close.run());
+        push.run();
+        return emitter;
+    }
+
+    private int batchLimit(int limit) {
+        if (limit <= 0) {
+            throw new BusinessException(400, "拉取数量必须大于0");
+        }
+        return Math.min(limit, maxBatch);
+    }
+}
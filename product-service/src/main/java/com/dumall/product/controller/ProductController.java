@@ -1,14 +1,34 @@
 package com.dumall.product.controller;
 
 import com.dumall.common.response.ApiResponse;
+import com.dumall.product.cache.CatalogVersion;
+import com.dumall.product.dto.CursorPage;
+import com.dumall.product.dto.ProductBatchResponse;
+import com.dumall.product.dto.ProductFacets;
+import com.dumall.product.dto.ProductFilter;
+import com.dumall.product.dto.ProductImportReport;
+import com.dumall.product.dto.ProductSort;
+import com.dumall.product.dto.ProductSuggestion;
+import com.dumall.product.dto.ProductSummary;
+import com.dumall.product.dto.ProductView;
+import com.dumall.product.dto.StockBatchRequest;
 import com.dumall.product.entity.Product;
+import com.dumall.product.importer.ImportFormat;
+import com.dumall.product.importer.ProductImportService;
+import com.dumall.product.popularity.ProductPopularityTracker;
 import com.dumall.product.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.ZoneId;
 import java.util.List;
 
 /**
@@ -21,19 +41,98 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final CatalogVersion catalogVersion;
+    private final ProductImportService productImportService;
+    private final ProductPopularityTracker productPopularityTracker;
 
     /**
      * 获取所有商品
      * 
+     * @param view 返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
      * @return 商品列表
      */
     @GetMapping
-    public ApiResponse<List<Product>> getAllProducts() {
+    public ApiResponse<List<?>> getAllProducts(@RequestParam(defaultValue = "FULL") ProductView view,
+                                               WebRequest webRequest) {
         log.info("获取所有商品");
-        List<Product> products = productService.getAllProducts();
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<?> products = view == ProductView.SUMMARY
+                ? productService.getProductSummaries()
+                : productService.getAllProducts();
         return ApiResponse.success(products);
     }
 
+    /**
+     * 游标分页获取商品
+     * 
+     * @param after      上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit      页大小
+     * @param sort       排序方式
+     * @param view       返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
+     * @return 分页结果
+     */
+    @GetMapping("/page")
+    public ApiResponse<CursorPage<?>> getProductPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BigDecimal afterPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
+        log.info("游标分页获取商品: after={}, limit={}, sort={}", after, limit, sort);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CursorPage<?> page = view == ProductView.SUMMARY
+                ? productService.getProductSummaryPage(after, afterPrice, limit, sort)
+                : productService.getProductPage(after, afterPrice, limit, sort);
+        return ApiResponse.success(page);
+    }
+
+    /**
+     * 以NDJSON流式导出全部商品
+     * 
+     * @return 每行一个商品JSON的响应流
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        log.info("流式导出商品");
+        StreamingResponseBody body = productService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    /**
+     * 批量获取商品
+     * 
+     * @param ids 商品ID列表（逗号分隔）
+     * @return 按请求顺序排列的商品及不存在的ID
+     */
+    @GetMapping("/batch")
+    public ApiResponse<ProductBatchResponse> getProductsByIds(@RequestParam List<Long> ids, WebRequest webRequest) {
+        log.info("批量获取商品: {} 个", ids.size());
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        ProductBatchResponse response = productService.getProductsByIds(ids);
+        return ApiResponse.success(response);
+    }
+
+    /**
+     * 获取热门商品（按浏览热度降序）
+     * 
+     * @param limit 最大返回数量
+     * @return 商品列表
+     */
+    @GetMapping("/hot")
+    public ApiResponse<List<Product>> getHotProducts(@RequestParam(defaultValue = "20") int limit) {
+        return ApiResponse.success(productService.getHotProducts(limit));
+    }
+
     /**
      * 根据ID获取商品
      * 
@@ -41,9 +140,13 @@ public class ProductController {
      * @return 商品信息
      */
     @GetMapping("/{id}")
-    public ApiResponse<Product> getProductById(@PathVariable Long id) {
+    public ApiResponse<Product> getProductById(@PathVariable Long id, WebRequest webRequest) {
         log.info("根据ID获取商品: {}", id);
         Product product = productService.getProductById(id);
+        productPopularityTracker.recordView(id);
+        if (webRequest.checkNotModified(productEtag(product), lastModified(product))) {
+            return null;
+        }
         return ApiResponse.success(product);
     }
 
@@ -60,6 +163,32 @@ public class ProductController {
         return ApiResponse.success(createdProduct);
     }
 
+    /**
+     * 批量导入商品（CSV，首行为表头，至少包含 name、price、stock 列）
+     * 
+     * @param body 上传内容
+     * @return 导入结果
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ApiResponse<ProductImportReport> importProductsCsv(InputStream body) {
+        log.info("批量导入商品: CSV");
+        ProductImportReport report = productImportService.importProducts(body, ImportFormat.CSV);
+        return ApiResponse.success(report);
+    }
+
+    /**
+     * 批量导入商品（NDJSON，每行一个商品JSON）
+     * 
+     * @param body 上传内容
+     * @return 导入结果
+     */
+    @PostMapping(value = "/import", consumes = "application/x-ndjson")
+    public ApiResponse<ProductImportReport> importProductsNdjson(InputStream body) {
+        log.info("批量导入商品: NDJSON");
+        ProductImportReport report = productImportService.importProducts(body, ImportFormat.NDJSON);
+        return ApiResponse.success(report);
+    }
+
     /**
      * 更新商品
      * 
@@ -91,56 +220,245 @@ public class ProductController {
      * 根据分类获取商品
      * 
      * @param category 商品分类
+     * @param view     返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
      * @return 商品列表
      */
     @GetMapping("/category/{category}")
-    public ApiResponse<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ApiResponse<List<?>> getProductsByCategory(@PathVariable String category,
+                                                      @RequestParam(defaultValue = "FULL") ProductView view,
+                                                      WebRequest webRequest) {
         log.info("根据分类获取商品: {}", category);
-        List<Product> products = productService.getProductsByCategory(category);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<?> products = view == ProductView.SUMMARY
+                ? productService.getProductSummariesByCategory(category)
+                : productService.getProductsByCategory(category);
         return ApiResponse.success(products);
     }
 
+    /**
+     * 按分类游标分页获取商品
+     * 
+     * @param category   商品分类
+     * @param after      上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit      页大小
+     * @param sort       排序方式
+     * @param view       返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
+     * @return 分页结果
+     */
+    @GetMapping("/category/{category}/page")
+    public ApiResponse<CursorPage<?>> getProductPageByCategory(
+            @PathVariable String category,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BigDecimal afterPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
+        log.info("按分类游标分页获取商品: {}, after={}, limit={}, sort={}", category, after, limit, sort);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CursorPage<?> page = view == ProductView.SUMMARY
+                ? productService.getProductSummaryPageByCategory(category, after, afterPrice, limit, sort)
+                : productService.getProductPageByCategory(category, after, afterPrice, limit, sort);
+        return ApiResponse.success(page);
+    }
+
     /**
      * 根据价格范围获取商品
      * 
      * @param minPrice 最低价格
      * @param maxPrice 最高价格
+     * @param view     返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
      * @return 商品列表
      */
     @GetMapping("/price-range")
-    public ApiResponse<List<Product>> getProductsByPriceRange(
+    public ApiResponse<List<?>> getProductsByPriceRange(
             @RequestParam BigDecimal minPrice,
-            @RequestParam BigDecimal maxPrice) {
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
         log.info("根据价格范围获取商品: {} - {}", minPrice, maxPrice);
-        List<Product> products = productService.getProductsByPriceRange(minPrice, maxPrice);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<?> products = view == ProductView.SUMMARY
+                ? productService.getProductSummariesByPriceRange(minPrice, maxPrice)
+                : productService.getProductsByPriceRange(minPrice, maxPrice);
         return ApiResponse.success(products);
     }
 
+    /**
+     * 按价格范围游标分页获取商品
+     * 
+     * @param minPrice   最低价格
+     * @param maxPrice   最高价格
+     * @param after      上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit      页大小
+     * @param sort       排序方式
+     * @param view       返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
+     * @return 分页结果
+     */
+    @GetMapping("/price-range/page")
+    public ApiResponse<CursorPage<?>> getProductPageByPriceRange(
+            @RequestParam BigDecimal minPrice,
+            @RequestParam BigDecimal maxPrice,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BigDecimal afterPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "PRICE_ASC") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
+        log.info("按价格范围游标分页获取商品: {} - {}, after={}, limit={}, sort={}",
+                minPrice, maxPrice, after, limit, sort);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CursorPage<?> page = view == ProductView.SUMMARY
+                ? productService.getProductSummaryPageByPriceRange(minPrice, maxPrice, after, afterPrice, limit, sort)
+                : productService.getProductPageByPriceRange(minPrice, maxPrice, after, afterPrice, limit, sort);
+        return ApiResponse.success(page);
+    }
+
     /**
      * 搜索商品
      * 
      * @param keyword 关键词
-     * @return 商品列表
+     * @param limit   最大返回数量
+     * @return 按相关度排序的商品列表
      */
     @GetMapping("/search")
-    public ApiResponse<List<Product>> searchProducts(@RequestParam String keyword) {
+    public ApiResponse<List<Product>> searchProducts(
+            @RequestParam String keyword,
+            @RequestParam(defaultValue = "20") int limit,
+            WebRequest webRequest) {
         log.info("搜索商品: {}", keyword);
-        List<Product> products = productService.searchProducts(keyword);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<Product> products = productService.searchProducts(keyword, limit);
         return ApiResponse.success(products);
     }
 
+    /**
+     * 商品名称联想（输入框逐字调用）
+     * 
+     * @param prefix 输入前缀
+     * @param limit  最大返回数量
+     * @return 联想建议
+     */
+    @GetMapping("/suggest")
+    public ApiResponse<List<ProductSuggestion>> suggestProducts(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<ProductSuggestion> suggestions = productService.suggestProducts(prefix, limit);
+        return ApiResponse.success(suggestions);
+    }
+
+    /**
+     * 组合条件筛选商品（游标分页）
+     * 分类、价格范围、库存、关键词、排序和页大小在一次查询中完成，
+     * 请求参数：category、minPrice、maxPrice、inStock、keyword、sort、after、afterPrice、limit
+     * 
+     * @param filter 筛选条件
+     * @param view   返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
+     * @return 分页结果
+     */
+    @GetMapping("/filter")
+    public ApiResponse<CursorPage<?>> filterProducts(
+            ProductFilter filter,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
+        log.info("组合条件筛选商品: {}", filter);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CursorPage<?> page = view == ProductView.SUMMARY
+                ? productService.filterProducts(filter, ProductSummary.class)
+                : productService.filterProducts(filter, Product.class);
+        return ApiResponse.success(page);
+    }
+
+    /**
+     * 获取分面统计
+     * 分类计数忽略分类条件、价格直方图忽略价格条件，便于前端展示可切换的筛选项
+     * 
+     * @param category 分类（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param inStock  是否只统计有库存商品
+     * @return 分面统计
+     */
+    @GetMapping("/facets")
+    public ApiResponse<ProductFacets> getProductFacets(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "false") boolean inStock,
+            WebRequest webRequest) {
+        log.info("获取商品分面统计: category={}, price={} - {}", category, minPrice, maxPrice);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        ProductFacets facets = productService.getProductFacets(category, minPrice, maxPrice, inStock);
+        return ApiResponse.success(facets);
+    }
+
     /**
      * 获取有库存的商品
      * 
+     * @param view 返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
      * @return 商品列表
      */
     @GetMapping("/available")
-    public ApiResponse<List<Product>> getAvailableProducts() {
+    public ApiResponse<List<?>> getAvailableProducts(@RequestParam(defaultValue = "FULL") ProductView view,
+                                                     WebRequest webRequest) {
         log.info("获取有库存的商品");
-        List<Product> products = productService.getAvailableProducts();
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        List<?> products = view == ProductView.SUMMARY
+                ? productService.getAvailableProductSummaries()
+                : productService.getAvailableProducts();
         return ApiResponse.success(products);
     }
 
+    /**
+     * 游标分页获取有库存的商品
+     * 
+     * @param after      上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit      页大小
+     * @param sort       排序方式
+     * @param view       返回视图（SUMMARY只返回ID、名称、价格、库存、图片）
+     * @return 分页结果
+     */
+    @GetMapping("/available/page")
+    public ApiResponse<CursorPage<?>> getAvailableProductPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) BigDecimal afterPrice,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "ID") ProductSort sort,
+            @RequestParam(defaultValue = "FULL") ProductView view,
+            WebRequest webRequest) {
+        log.info("游标分页获取有库存的商品: after={}, limit={}, sort={}", after, limit, sort);
+        if (webRequest.checkNotModified(catalogVersion.etag())) {
+            return null;
+        }
+        CursorPage<?> page = view == ProductView.SUMMARY
+                ? productService.getAvailableProductSummaryPage(after, afterPrice, limit, sort)
+                : productService.getAvailableProductPage(after, afterPrice, limit, sort);
+        return ApiResponse.success(page);
+    }
+
     /**
      * 更新商品库存
      * 
@@ -154,4 +472,45 @@ public class ProductController {
         Product product = productService.updateStock(id, quantity);
         return ApiResponse.success(product);
     }
+
+    /**
+     * 条件变更商品库存（库存不足时返回false，不抛出异常）
+     * 
+     * @param id       商品ID
+     * @param quantity 数量
+     * @return 是否成功
+     */
+    @PutMapping("/{id}/stock/try")
+    public ApiResponse<Boolean> tryAdjustStock(@PathVariable Long id, @RequestParam Integer quantity) {
+        log.info("条件变更商品库存: {} - {}", id, quantity);
+        boolean success = productService.tryAdjustStock(id, quantity);
+        return ApiResponse.success(success);
+    }
+
+    /**
+     * 批量变更商品库存（全部成功或全部回滚）
+     * 
+     * @param request 库存变化项
+     * @return 变更的商品数量
+     */
+    @PutMapping("/stock/batch")
+    public ApiResponse<Integer> adjustStockBatch(@Valid @RequestBody StockBatchRequest request) {
+        log.info("批量变更商品库存: {} 项", request.getItems().size());
+        int count = productService.adjustStockBatch(request.getItems());
+        return ApiResponse.success(count);
+    }
+
+    /**
+     * 单个商品的强ETag，由ID和更新时间决定
+     */
+    private String productEtag(Product product) {
+        return "\"product-" + product.getId() + "-" + lastModified(product) + "\"";
+    }
+
+    private long lastModified(Product product) {
+        if (product.getUpdatedAt() == null) {
+            return -1;
+        }
+        return product.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.dumall.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 游标分页响应DTO
+ * 下一页请求携带 after=nextAfter（按价格排序时再携带 afterPrice=nextAfterPrice）
+ * @param <T> 数据类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private List<T> items;
+    private Integer limit;
+    private Boolean hasMore;
+    private Long nextAfter; // 下一页游标：本页最后一条记录的ID
+    private BigDecimal nextAfterPrice; // 下一页游标：本页最后一条记录的价格（仅按价格排序时有值）
+}
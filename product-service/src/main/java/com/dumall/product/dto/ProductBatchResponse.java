@@ -0,0 +1,20 @@
+package com.dumall.product.dto;
+
+import com.dumall.product.entity.Product;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量查询商品响应DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+
+    private List<Product> products; // 按请求顺序排列（重复ID只返回一次）
+    private List<Long> missingIds; // 不存在的商品ID
+}
@@ -0,0 +1,25 @@
+package com.dumall.product.dto;
+
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 商品变更记录DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+
+    private Long sequence; // 单调递增序号
+    private ProductChangeType type;
+    private Long productId;
+    private Product product; // 变更后的完整商品（删除和纯库存变更时为null）
+    private Integer stockDelta; // 库存变化量（仅STOCK类型）
+    private Instant timestamp;
+}
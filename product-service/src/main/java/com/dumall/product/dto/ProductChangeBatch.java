@@ -0,0 +1,23 @@
+package com.dumall.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 商品变更批次DTO
+ * 消费方保存nextAfter作为下次拉取的偏移量；truncated为true或epoch变化时需通过全量导出重新同步
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeBatch {
+
+    private Long epoch; // 变更流实例标识（服务启动时间），变化表示序号已重置
+    private List<ProductChange> changes; // 已按商品合并的变更，按序号升序
+    private Long nextAfter; // 下次拉取的偏移量
+    private Long latestSequence; // 当前最新序号
+    private Boolean truncated; // 请求的偏移量早于保留窗口，中间的变更已丢失
+}
@@ -0,0 +1,35 @@
+package com.dumall.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品分面统计响应DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFacets {
+
+    private Long total; // 满足全部筛选条件的商品数
+    private Map<String, Long> categories; // 各分类商品数（忽略分类条件），按数量降序
+    private List<PriceBucket> priceBuckets; // 价格区间直方图（忽略价格条件）
+
+    /**
+     * 价格区间统计
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+
+        private BigDecimal min; // 区间下界（含）
+        private BigDecimal max; // 区间上界（不含），null表示无上界
+        private Long count;
+    }
+}
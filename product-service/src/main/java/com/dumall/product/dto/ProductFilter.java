@@ -0,0 +1,25 @@
+package com.dumall.product.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品组合筛选条件
+ * 所有条件均可选，多个条件之间为AND关系
+ */
+@Data
+@NoArgsConstructor
+public class ProductFilter {
+
+    private String category; // 分类
+    private BigDecimal minPrice; // 最低价格（含）
+    private BigDecimal maxPrice; // 最高价格（含）
+    private Boolean inStock = false; // 是否只返回有库存商品
+    private String keyword; // 关键词（与搜索接口相同的分词匹配）
+    private ProductSort sort = ProductSort.ID; // 排序方式
+    private Long after; // 上一页最后一条记录的ID
+    private BigDecimal afterPrice; // 上一页最后一条记录的价格（按价格排序时使用）
+    private Integer limit = 20; // 页大小
+}
@@ -0,0 +1,35 @@
+package com.dumall.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量导入结果DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportReport {
+
+    private Long totalRows; // 数据行数（不含表头和空行）
+    private Long importedRows;
+    private Long failedRows;
+    private Long elapsedMillis;
+    private Double rowsPerSecond;
+    private List<RowError> errors; // 行级错误（最多保留 product.import.max-errors 条）
+
+    /**
+     * 行级错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        private Long line; // 行号（从1开始，含表头）
+        private String message;
+    }
+}
@@ -0,0 +1,10 @@
+package com.dumall.product.dto;
+
+/**
+ * 商品列表排序方式
+ */
+public enum ProductSort {
+    ID,         // 按ID升序
+    PRICE_ASC,  // 按价格升序
+    PRICE_DESC  // 按价格降序
+}
@@ -0,0 +1,23 @@
+package com.dumall.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * 商品摘要DTO
+ * 列表视图只需要的字段，仓库查询通过构造器投影只选取对应列（不含描述和时间字段）；
+ * 使用普通类而非接口投影，避免序列化时经过投影代理的反射开销。
+ * 只保留全参构造器，Spring Data按其参数名确定需要查询的属性
+ */
+@Data
+@AllArgsConstructor
+public class ProductSummary {
+
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Integer stock;
+    private String imageUrl;
+}
@@ -0,0 +1,9 @@
+package com.dumall.product.dto;
+
+/**
+ * 商品列表返回视图
+ */
+public enum ProductView {
+    FULL,    // 完整商品信息
+    SUMMARY  // 摘要：ID、名称、价格、库存、图片
+}
@@ -0,0 +1,21 @@
+package com.dumall.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 库存变化项DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustment {
+
+    @NotNull(message = "商品ID不能为空")
+    private Long productId;
+
+    @NotNull(message = "数量不能为空")
+    private Integer quantity; // 正数为增加，负数为减少
+}
@@ -0,0 +1,20 @@
+package com.dumall.product.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量库存变更请求DTO
+ */
+@Data
+public class StockBatchRequest {
+
+    @NotEmpty(message = "库存变化项不能为空")
+    @Size(max = 500, message = "单次最多变更500个商品")
+    @Valid
+    private List<StockAdjustment> items;
+}
@@ -0,0 +1,56 @@
+package com.dumall.product.event;
+
+import com.dumall.product.entity.Product;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 商品变更事件
+ * 由ProductService在写操作后发布，事务提交后分发给搜索索引、缓存等内存结构
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class ProductChangeEvent {
+
+    /**
+     * 变更类型
+     */
+    private final ProductChangeType type;
+
+    /**
+     * 商品ID
+     */
+    private final Long productId;
+
+    /**
+     * 变更后的商品快照（删除和条件库存更新时为null）
+     */
+    private final Product product;
+
+    /**
+     * 变更前的商品分类（新建和条件库存更新时为null），用于精确失效旧分类的数据
+     */
+    private final String previousCategory;
+
+    /**
+     * 库存变化量（仅库存变更时有值）
+     */
+    private final Integer stockDelta;
+
+    public static ProductChangeEvent created(Product product) {
+        return new ProductChangeEvent(ProductChangeType.CREATED, product.getId(), product, null, null);
+    }
+
+    public static ProductChangeEvent updated(Product product, String previousCategory) {
+        return new ProductChangeEvent(ProductChangeType.UPDATED, product.getId(), product, previousCategory, null);
+    }
+
+    public static ProductChangeEvent deleted(Long productId, String category) {
+        return new ProductChangeEvent(ProductChangeType.DELETED, productId, null, category, null);
+    }
+
+    public static ProductChangeEvent stockChanged(Long productId, int stockDelta) {
+        return new ProductChangeEvent(ProductChangeType.STOCK, productId, null, null, stockDelta);
+    }
+}
@@ -0,0 +1,11 @@
+package com.dumall.product.event;
+
+/**
+ * 商品变更类型
+ */
+public enum ProductChangeType {
+    CREATED,    // 新建
+    UPDATED,    // 更新
+    DELETED,    // 删除
+    STOCK       // 库存变更
+}
@@ -0,0 +1,67 @@
+package com.dumall.product.event;
+
+import com.dumall.product.entity.Product;
+import com.dumall.product.repository.ProductRepository;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 内存索引全量重建期间的变更跟踪
+ * 全量快照在锁外读取，读取期间提交的变更事件可能已应用到索引、随后又被更旧的快照覆盖；
+ * 重建期间记下变更的商品ID，快照装入后从数据库重新读取这些商品覆盖，直到没有新的变更为止。
+ * 除reload外的方法都须在索引自身的锁内调用
+ */
+public class RebuildTracker {
+
+    private final Object lock;
+    private Set<Long> changed;
+
+    public RebuildTracker(Object lock) {
+        this.lock = lock;
+    }
+
+    /**
+     * 开始跟踪（在读取全量快照之前调用）
+     */
+    public void start() {
+        changed = new HashSet<>();
+    }
+
+    /**
+     * 记录变更的商品（未在重建时忽略）
+     * @param productId 商品ID
+     */
+    public void record(Long productId) {
+        if (changed != null && productId != null) {
+            changed.add(productId);
+        }
+    }
+
+    /**
+     * 快照装入后重新读取重建期间变更的商品，全部收敛后结束跟踪
+     * @param productRepository 商品仓库
+     * @param remove 从索引中移除商品
+     * @param put 把商品加入索引
+     */
+    public void reload(ProductRepository productRepository, Consumer<Long> remove, Consumer<Product> put) {
+        while (true) {
+            Set<Long> ids;
+            synchronized (lock) {
+                if (changed.isEmpty()) {
+                    changed = null;
+                    return;
+                }
+                ids = changed;
+                changed = new HashSet<>();
+            }
+            List<Product> products = productRepository.findAllById(ids);
+            synchronized (lock) {
+                ids.forEach(remove);
+                products.forEach(put);
+            }
+        }
+    }
+}
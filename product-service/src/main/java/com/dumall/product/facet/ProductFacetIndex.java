@@ -0,0 +1,228 @@
+package com.dumall.product.facet;
+
+import com.dumall.product.dto.ProductFacets;
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.event.ProductChangeType;
+import com.dumall.product.event.RebuildTracker;
+import com.dumall.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品分面统计索引
+ * 在内存中按（分类, 价格区间, 是否有库存）维护计数，根据商品变更事件增量更新；
+ * 不带价格条件的分面查询直接由计数汇总得出，带价格条件时对内存中的紧凑记录做一次遍历
+ */
+@Slf4j
+@Component
+public class ProductFacetIndex {
+
+    /**
+     * 无分类商品的统计名称
+     */
+    public static final String UNCATEGORIZED = "未分类";
+
+    private final ProductRepository productRepository;
+
+    /**
+     * 价格区间下界（升序），最后一个区间无上界
+     */
+    private final BigDecimal[] bounds;
+
+    /**
+     * 商品ID -> 分面记录
+     */
+    private final Map<Long, FacetEntry> entries = new HashMap<>();
+
+    /**
+     * 分类 -> 计数数组，下标为 区间序号 * 2 + (有库存 ? 1 : 0)
+     */
+    private final Map<String, long[]> cells = new HashMap<>();
+
+    private final RebuildTracker rebuildTracker = new RebuildTracker(this);
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${product.facet.price-bounds:0,100,500,1000,2000,5000,10000}") List<BigDecimal> bounds) {
+        this.productRepository = productRepository;
+        this.bounds = bounds.stream().sorted().toArray(BigDecimal[]::new);
+        if (this.bounds.length == 0) {
+            throw new IllegalArgumentException("product.facet.price-bounds不能为空");
+        }
+    }
+
+    /**
+     * 应用启动完成后全量构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            rebuildTracker.start();
+        }
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            entries.clear();
+            cells.clear();
+            products.forEach(this::put);
+        }
+        rebuildTracker.reload(productRepository, this::remove, this::put);
+        log.info("商品分面统计构建完成: {} 个商品, {} 个分类", products.size(), cells.size());
+    }
+
+    /**
+     * 事务提交后根据商品变更增量更新
+     * @param event 商品变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        rebuildTracker.record(event.getProductId());
+        if (event.getType() == ProductChangeType.DELETED) {
+            remove(event.getProductId());
+        } else if (event.getProduct() != null) {
+            remove(event.getProductId());
+            put(event.getProduct());
+        } else if (event.getStockDelta() != null) {
+            FacetEntry current = remove(event.getProductId());
+            if (current != null) {
+                add(event.getProductId(), new FacetEntry(current.category(), current.price(),
+                        current.stock() + event.getStockDelta()));
+            }
+        }
+    }
+
+    /**
+     * 计算分面统计
+     * @param category 分类条件（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param inStockOnly 是否只统计有库存商品
+     * @return 分面统计
+     */
+    public synchronized ProductFacets facets(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                             boolean inStockOnly) {
+        long[] histogram = new long[bounds.length];
+        for (Map.Entry<String, long[]> cell : cells.entrySet()) {
+            if (category == null || category.equals(cell.getKey())) {
+                long[] counts = cell.getValue();
+                for (int bucket = 0; bucket < bounds.length; bucket++) {
+                    histogram[bucket] += count(counts, bucket, inStockOnly);
+                }
+            }
+        }
+
+        Map<String, Long> categoryCounts = new HashMap<>();
+        long total = 0;
+        if (minPrice == null && maxPrice == null) {
+            for (Map.Entry<String, long[]> cell : cells.entrySet()) {
+                long count = 0;
+                for (int bucket = 0; bucket < bounds.length; bucket++) {
+                    count += count(cell.getValue(), bucket, inStockOnly);
+                }
+                categoryCounts.put(cell.getKey(), count);
+                if (category == null || category.equals(cell.getKey())) {
+                    total += count;
+                }
+            }
+        } else {
+            for (FacetEntry entry : entries.values()) {
+                if ((inStockOnly && entry.stock() <= 0)
+                        || (minPrice != null && entry.price().compareTo(minPrice) < 0)
+                        || (maxPrice != null && entry.price().compareTo(maxPrice) > 0)) {
+                    continue;
+                }
+                categoryCounts.merge(entry.category(), 1L, Long::sum);
+                if (category == null || category.equals(entry.category())) {
+                    total++;
+                }
+            }
+        }
+
+        Map<String, Long> sortedCategories = new LinkedHashMap<>();
+        categoryCounts.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> sortedCategories.put(e.getKey(), e.getValue()));
+
+        List<ProductFacets.PriceBucket> priceBuckets = new ArrayList<>(bounds.length);
+        for (int bucket = 0; bucket < bounds.length; bucket++) {
+            BigDecimal upper = bucket + 1 < bounds.length ? bounds[bucket + 1] : null;
+            priceBuckets.add(new ProductFacets.PriceBucket(bounds[bucket], upper, histogram[bucket]));
+        }
+        return new ProductFacets(total, sortedCategories, priceBuckets);
+    }
+
+    private long count(long[] counts, int bucket, boolean inStockOnly) {
+        return inStockOnly ? counts[bucket * 2 + 1] : counts[bucket * 2] + counts[bucket * 2 + 1];
+    }
+
+    private void put(Product product) {
+        if (product.getId() == null || product.getPrice() == null) {
+            return;
+        }
+        String category = product.getCategory() == null ? UNCATEGORIZED : product.getCategory();
+        int stock = product.getStock() == null ? 0 : product.getStock();
+        add(product.getId(), new FacetEntry(category, product.getPrice(), stock));
+    }
+
+    private void add(Long id, FacetEntry entry) {
+        entries.put(id, entry);
+        cells.computeIfAbsent(entry.category(), c -> new long[bounds.length * 2])[cellIndex(entry)]++;
+    }
+
+    private FacetEntry remove(Long id) {
+        FacetEntry entry = entries.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        long[] counts = cells.get(entry.category());
+        counts[cellIndex(entry)]--;
+        boolean empty = true;
+        for (long count : counts) {
+            if (count != 0) {
+                empty = false;
+                break;
+            }
+        }
+        if (empty) {
+            cells.remove(entry.category());
+        }
+        return entry;
+    }
+
+    private int cellIndex(FacetEntry entry) {
+        return bucketOf(entry.price()) * 2 + (entry.stock() > 0 ? 1 : 0);
+    }
+
+    /**
+     * 二分查找价格所在区间，低于最小下界的价格归入第一个区间
+     */
+    private int bucketOf(BigDecimal price) {
+        int low = 0;
+        int high = bounds.length - 1;
+        int result = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (bounds[mid].compareTo(price) <= 0) {
+                result = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return result;
+    }
+
+    private record FacetEntry(String category, BigDecimal price, int stock) {
+    }
+}
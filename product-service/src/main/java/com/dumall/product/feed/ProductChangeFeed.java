@@ -0,0 +1,156 @@
+package com.dumall.product.feed;
+
+import com.dumall.product.dto.ProductChange;
+import com.dumall.product.dto.ProductChangeBatch;
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.event.ProductChangeType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 商品变更流
+ * 事务提交后把商品变更按提交顺序追加到固定容量的环形缓冲区，分配单调递增的序号；
+ * 消费方从任意偏移量拉取（或长轮询/SSE等待）后续变更，同一批次内同一商品的多条变更合并为一条
+ */
+@Slf4j
+@Component
+public class ProductChangeFeed {
+
+    private final long epoch = System.currentTimeMillis();
+    private final ProductChange[] ring;
+    private final Queue<Runnable> waiters = new ConcurrentLinkedQueue<>();
+    private final ExecutorService notifier;
+
+    /**
+     * 最新序号，0表示尚无变更
+     */
+    private long latestSequence;
+
+    public ProductChangeFeed(@Value("${product.feed.capacity:100000}") int capacity) {
+        this.ring = new ProductChange[capacity];
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.notifier = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "product-feed-notify-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 事务提交后追加变更
+     * @param event 商品变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        synchronized (this) {
+            long sequence = ++latestSequence;
+            ring[(int) (sequence % ring.length)] = new ProductChange(sequence, event.getType(),
+                    event.getProductId(), event.getProduct(), event.getStockDelta(), Instant.now());
+        }
+        Runnable waiter;
+        while ((waiter = waiters.poll()) != null) {
+            notifier.execute(waiter);
+        }
+    }
+
+    /**
+     * 读取偏移量之后的变更
+     * @param after 已消费的最后序号
+     * @param limit 最多读取的原始变更条数（合并前）
+     * @return 合并后的变更批次
+     */
+    public ProductChangeBatch read(long after, int limit) {
+        List<ProductChange> raw = new ArrayList<>();
+        long latest;
+        boolean truncated;
+        synchronized (this) {
+            latest = latestSequence;
+            long oldest = Math.max(1, latest - ring.length + 1);
+            truncated = after > latest || after + 1 < oldest;
+            long from = truncated ? oldest : after + 1;
+            for (long sequence = from; sequence <= latest && raw.size() < limit; sequence++) {
+                raw.add(ring[(int) (sequence % ring.length)]);
+            }
+        }
+        long nextAfter = raw.isEmpty() ? Math.min(after, latest) : raw.get(raw.size() - 1).getSequence();
+        return new ProductChangeBatch(epoch, coalesce(raw), nextAfter, latest, truncated);
+    }
+
+    /**
+     * 当有序号大于after的变更时（在通知线程中）执行一次回调；已有新变更时立即安排执行
+     * @param after 已消费的最后序号
+     * @param callback 回调
+     */
+    public void awaitAfter(long after, Runnable callback) {
+        waiters.add(callback);
+        boolean available;
+        synchronized (this) {
+            available = latestSequence > after;
+        }
+        if (available && waiters.remove(callback)) {
+            notifier.execute(callback);
+        }
+    }
+
+    /**
+     * 取消等待
+     * @param callback 之前注册的回调
+     */
+    public void cancel(Runnable callback) {
+        waiters.remove(callback);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    /**
+     * 同一商品的多条变更合并为一条：保留最后一次完整状态（新建/更新/删除），
+     * 并把其后的库存变化量叠加到快照上；只有库存变化时合并为一条累计变化量
+     */
+    private List<ProductChange> coalesce(List<ProductChange> raw) {
+        Map<Long, ProductChange> merged = new LinkedHashMap<>();
+        for (ProductChange change : raw) {
+            ProductChange previous = merged.remove(change.getProductId());
+            merged.put(change.getProductId(), previous == null ? change : merge(previous, change));
+        }
+        List<ProductChange> result = new ArrayList<>(merged.values());
+        result.sort((a, b) -> Long.compare(a.getSequence(), b.getSequence()));
+        return result;
+    }
+
+    private ProductChange merge(ProductChange previous, ProductChange next) {
+        if (next.getType() != ProductChangeType.STOCK) {
+            return next;
+        }
+        if (previous.getType() == ProductChangeType.DELETED) {
+            return previous;
+        }
+        if (previous.getType() == ProductChangeType.STOCK) {
+            return new ProductChange(next.getSequence(), ProductChangeType.STOCK, next.getProductId(), null,
+                    previous.getStockDelta() + next.getStockDelta(), next.getTimestamp());
+        }
+        Product snapshot = previous.getProduct();
+        Product adjusted = new Product(snapshot.getId(), snapshot.getName(), snapshot.getDescription(),
+                snapshot.getPrice(), snapshot.getStock() + next.getStockDelta(), snapshot.getCategory(),
+                snapshot.getImageUrl(), snapshot.getCreatedAt(), snapshot.getUpdatedAt());
+        return new ProductChange(next.getSequence(), previous.getType(), next.getProductId(), adjusted,
+                null, next.getTimestamp());
+    }
+}
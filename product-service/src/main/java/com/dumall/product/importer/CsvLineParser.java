@@ -0,0 +1,53 @@
+package com.dumall.product.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV行解析器
+ * 支持双引号包裹的字段和 "" 转义，不支持字段内换行
+ */
+public final class CsvLineParser {
+
+    private CsvLineParser() {
+    }
+
+    /**
+     * 解析一行CSV
+     * @param line 行内容
+     * @return 字段列表
+     * @throws IllegalArgumentException 引号不匹配
+     */
+    public static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("引号未闭合");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dumall.product.importer;
+
+/**
+ * 批量导入文件格式
+ */
+public enum ImportFormat {
+    CSV,    // 首行为表头的CSV
+    NDJSON  // 每行一个商品JSON
+}
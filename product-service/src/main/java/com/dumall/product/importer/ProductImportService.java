@@ -0,0 +1,240 @@
+package com.dumall.product.importer;
+
+import com.dumall.common.exception.BusinessException;
+import com.dumall.product.dto.ProductImportReport;
+import com.dumall.product.dto.ProductImportReport.RowError;
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 商品批量导入服务
+ * 逐行读取上传内容并按Product约束校验，合法行按批次在独立事务中写入（配合序列主键和JDBC批处理），
+ * 单个批次失败不影响其他批次；每个批次写入后清空持久化上下文（请求级的open-in-view会话跨越所有批次），
+ * 内存占用只与批次大小有关
+ */
+@Slf4j
+@Service
+public class ProductImportService {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("name", "price", "stock");
+
+    private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${product.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${product.import.max-errors:1000}")
+    private int maxErrors;
+
+    public ProductImportService(ProductRepository productRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 导入商品
+     * @param in 上传内容（UTF-8）
+     * @param format 文件格式
+     * @return 导入结果
+     */
+    public ProductImportReport importProducts(InputStream in, ImportFormat format) {
+        log.info("开始批量导入商品: format={}, batchSize={}", format, batchSize);
+        long start = System.nanoTime();
+        ImportState state = new ImportState();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            Map<String, Integer> columns = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == ImportFormat.CSV && columns == null) {
+                    columns = parseHeader(line);
+                    continue;
+                }
+
+                state.totalRows++;
+                Product product;
+                try {
+                    product = format == ImportFormat.CSV ? parseCsv(line, columns) : parseJson(line);
+                } catch (IllegalArgumentException e) {
+                    state.fail(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                Set<ConstraintViolation<Product>> violations = validator.validate(product);
+                if (!violations.isEmpty()) {
+                    state.fail(lineNumber, violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+
+                state.batch.add(new ImportRow(lineNumber, product));
+                if (state.batch.size() >= batchSize) {
+                    flush(state);
+                }
+            }
+            flush(state);
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取导入内容失败", e);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double rowsPerSecond = elapsedMillis == 0 ? state.importedRows : state.importedRows * 1000.0 / elapsedMillis;
+        log.info("批量导入商品完成: 共 {} 行, 成功 {} 行, 失败 {} 行, 耗时 {} ms, {} 行/秒",
+                state.totalRows, state.importedRows, state.failedRows, elapsedMillis, Math.round(rowsPerSecond));
+        return new ProductImportReport(state.totalRows, state.importedRows, state.failedRows,
+                elapsedMillis, rowsPerSecond, state.errors);
+    }
+
+    /**
+     * 在独立事务中写入一个批次，提交后发布创建事件
+     */
+    private void flush(ImportState state) {
+        if (state.batch.isEmpty()) {
+            return;
+        }
+        List<ImportRow> rows = new ArrayList<>(state.batch);
+        state.batch.clear();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Product> saved = productRepository.saveAll(rows.stream().map(ImportRow::product).toList());
+                saved.forEach(product -> eventPublisher.publishEvent(ProductChangeEvent.created(product)));
+                entityManager.flush();
+                entityManager.clear();
+            });
+            state.importedRows += rows.size();
+        } catch (DataAccessException e) {
+            log.error("批量导入批次写入失败: 第 {} - {} 行", rows.get(0).line(), rows.get(rows.size() - 1).line(), e);
+            String message = "批次写入失败: " + e.getMostSpecificCause().getMessage();
+            rows.forEach(row -> state.fail(row.line(), message));
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = CsvLineParser.parse(line);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!columns.containsKey(required)) {
+                throw new BusinessException(400, "CSV表头缺少列: " + required);
+            }
+        }
+        return columns;
+    }
+
+    private Product parseCsv(String line, Map<String, Integer> columns) {
+        List<String> fields = CsvLineParser.parse(line);
+        Product product = new Product();
+        product.setName(field(fields, columns, "name"));
+        product.setDescription(field(fields, columns, "description"));
+        product.setCategory(field(fields, columns, "category"));
+        product.setImageUrl(field(fields, columns, "imageurl"));
+        String price = field(fields, columns, "price");
+        String stock = field(fields, columns, "stock");
+        try {
+            product.setPrice(price == null ? null : new BigDecimal(price));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("商品价格格式错误: " + price);
+        }
+        try {
+            product.setStock(stock == null ? null : Integer.valueOf(stock));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("库存数量格式错误: " + stock);
+        }
+        return product;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Product parseJson(String line) {
+        try {
+            Product product = objectMapper.readValue(line, Product.class);
+            // 导入只新建商品，忽略传入的ID和时间字段
+            product.setId(null);
+            product.setCreatedAt(null);
+            product.setUpdatedAt(null);
+            return product;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("JSON格式错误: " + e.getOriginalMessage());
+        }
+    }
+
+    private record ImportRow(long line, Product product) {
+    }
+
+    /**
+     * 单次导入的累计状态
+     */
+    private class ImportState {
+
+        private final List<ImportRow> batch = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long totalRows;
+        private long importedRows;
+        private long failedRows;
+
+        private void fail(long line, String message) {
+            failedRows++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RowError(line, message));
+            }
+        }
+    }
+}
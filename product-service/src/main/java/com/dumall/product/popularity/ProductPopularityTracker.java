@@ -0,0 +1,204 @@
+package com.dumall.product.popularity;
+
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.event.ProductChangeType;
+import com.dumall.product.search.ProductSuggestIndex;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 商品热度统计
+ * 浏览只对当前周期的LongAdder计数器自增（无锁）；衰减任务每个周期把计数并入按指数衰减的热度得分，
+ * 计算前N个热门商品并同步为联想索引的权重；热门商品定期写入本地文件，重启后用于恢复热度和预热缓存
+ */
+@Slf4j
+@Component
+public class ProductPopularityTracker {
+
+    private final ProductSuggestIndex productSuggestIndex;
+    private final Path file;
+    private final int topN;
+    private final double decayFactor;
+    private final double minScore;
+
+    /**
+     * 当前周期内的浏览次数
+     */
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 衰减后的热度得分，只由衰减任务（及启动恢复）写入
+     */
+    private final Map<Long, Double> scores = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次计算的热门商品ID（按热度降序），整体替换发布
+     */
+    private volatile List<Long> topIds = List.of();
+
+    public ProductPopularityTracker(ProductSuggestIndex productSuggestIndex,
+                                    @Value("${product.popularity.file:data/hot-products.csv}") String file,
+                                    @Value("${product.popularity.top-n:200}") int topN,
+                                    @Value("${product.popularity.decay-factor:0.9}") double decayFactor,
+                                    @Value("${product.popularity.min-score:0.01}") double minScore) {
+        this.productSuggestIndex = productSuggestIndex;
+        this.file = Paths.get(file);
+        this.topN = topN;
+        this.decayFactor = decayFactor;
+        this.minScore = minScore;
+    }
+
+    /**
+     * 记录一次商品浏览
+     * @param productId 商品ID
+     */
+    public void recordView(Long productId) {
+        LongAdder counter = pending.get(productId);
+        if (counter == null) {
+            counter = pending.computeIfAbsent(productId, id -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * 热门商品ID
+     * @param limit 最多返回数量
+     * @return 按热度降序排列的商品ID
+     */
+    public List<Long> topProductIds(int limit) {
+        List<Long> current = topIds;
+        return current.subList(0, Math.min(limit, current.size()));
+    }
+
+    /**
+     * 商品删除后不再统计
+     * @param event 商品变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChange(ProductChangeEvent event) {
+        if (event.getType() == ProductChangeType.DELETED) {
+            pending.remove(event.getProductId());
+            scores.remove(event.getProductId());
+        }
+    }
+
+    /**
+     * 衰减周期：旧得分乘以衰减系数后加上本周期浏览次数，低于阈值的商品不再跟踪
+     */
+    @Scheduled(fixedDelayString = "${product.popularity.decay-interval-millis:60000}")
+    public synchronized void decay() {
+        scores.replaceAll((id, score) -> score * decayFactor);
+        pending.forEach((id, counter) -> {
+            long views = counter.sumThenReset();
+            if (views > 0) {
+                scores.merge(id, (double) views, Double::sum);
+            }
+        });
+        scores.values().removeIf(score -> score < minScore);
+        publishTop();
+    }
+
+    /**
+     * 把热门商品及得分写入本地文件（先写临时文件再原子替换）
+     */
+    @Scheduled(initialDelayString = "${product.popularity.persist-interval-millis:300000}",
+               fixedDelayString = "${product.popularity.persist-interval-millis:300000}")
+    public synchronized void persist() {
+        List<Long> current = topIds;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Long id : current) {
+                    Double score = scores.get(id);
+                    if (score != null) {
+                        writer.write(id + "," + score);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("热门商品已写入 {}: {} 个", file, current.size());
+        } catch (IOException e) {
+            log.warn("写入热门商品文件失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 从本地文件恢复热度得分
+     * @return 按热度降序排列的热门商品ID（文件不存在时为空）
+     */
+    public synchronized List<Long> restore() {
+        if (!Files.isRegularFile(file)) {
+            log.info("热门商品文件不存在，跳过恢复: {}", file);
+            return List.of();
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] parts = line.split(",");
+                if (parts.length != 2) {
+                    continue;
+                }
+                try {
+                    scores.merge(Long.valueOf(parts[0].trim()), Double.valueOf(parts[1].trim()), Double::sum);
+                } catch (NumberFormatException e) {
+                    log.warn("忽略热门商品文件中的无效行: {}", line);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("读取热门商品文件失败: {}", file, e);
+        }
+        publishTop();
+        log.info("从 {} 恢复热门商品: {} 个", file, topIds.size());
+        return topIds;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        decay();
+        persist();
+    }
+
+    /**
+     * 计算前N个热门商品，并同步联想索引权重（跌出前N的商品权重清零）
+     */
+    private void publishTop() {
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(scores.entrySet());
+        entries.sort(Map.Entry.<Long, Double>comparingByValue().reversed());
+        List<Long> top = new ArrayList<>(Math.min(topN, entries.size()));
+        for (int i = 0; i < entries.size() && i < topN; i++) {
+            Map.Entry<Long, Double> entry = entries.get(i);
+            top.add(entry.getKey());
+            productSuggestIndex.updateWeight(entry.getKey(), entry.getValue());
+        }
+        Set<Long> current = new HashSet<>(top);
+        for (Long id : topIds) {
+            if (!current.contains(id)) {
+                productSuggestIndex.updateWeight(id, 0.0);
+            }
+        }
+        topIds = List.copyOf(top);
+    }
+}
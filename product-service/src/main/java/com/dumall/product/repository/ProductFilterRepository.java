@@ -0,0 +1,23 @@
+package com.dumall.product.repository;
+
+import com.dumall.product.entity.Product;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * 商品组合条件查询（ProductRepository的自定义片段）
+ */
+public interface ProductFilterRepository {
+
+    /**
+     * 按条件查询前limit条记录（不执行count查询）
+     * @param spec 查询条件
+     * @param sort 排序
+     * @param limit 最多返回的记录数
+     * @param type 返回类型：Product或ProductSummary（只查询摘要列）
+     * @return 记录列表
+     */
+    <T> List<T> findTop(Specification<Product> spec, Sort sort, int limit, Class<T> type);
+}
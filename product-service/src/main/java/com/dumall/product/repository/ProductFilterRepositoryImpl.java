@@ -0,0 +1,55 @@
+package com.dumall.product.repository;
+
+import com.dumall.product.dto.ProductSummary;
+import com.dumall.product.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+/**
+ * 商品组合条件查询实现
+ * 条件、排序和条数限制都下推到同一条SQL中
+ */
+@RequiredArgsConstructor
+public class ProductFilterRepositoryImpl implements ProductFilterRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findTop(Specification<Product> spec, Sort sort, int limit, Class<T> type) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<Product> root = query.from(Product.class);
+
+        if (type == Product.class) {
+            query.select((Selection<T>) root);
+        } else if (type == ProductSummary.class) {
+            query.select(cb.construct(type, root.get("id"), root.get("name"), root.get("price"),
+                    root.get("stock"), root.get("imageUrl")));
+        } else {
+            throw new IllegalArgumentException("不支持的返回类型: " + type.getName());
+        }
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
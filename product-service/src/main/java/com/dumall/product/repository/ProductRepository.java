@@ -1,19 +1,41 @@
 package com.dumall.product.repository;
 
+import com.dumall.product.dto.ProductSummary;
 import com.dumall.product.entity.Product;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * 商品仓库接口
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductFilterRepository {
+    
+    /**
+     * 摘要查询的构造器表达式，只选取ProductSummary需要的列
+     */
+    String SUMMARY_SELECT = "SELECT new com.dumall.product.dto.ProductSummary(p.id, p.name, p.price, p.stock, " +
+                            "p.imageUrl) FROM Product p ";
+    
+    /**
+     * 查找全部商品并按投影类型返回（投影为DTO时只查询其构造器参数对应的列）
+     * @param type 返回类型
+     * @return 商品列表
+     */
+    <T> List<T> findAllProjectedBy(Class<T> type);
     
     /**
      * 根据分类查找商品
@@ -22,6 +44,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findByCategory(String category);
     
+    /**
+     * 根据分类查找商品并按投影类型返回
+     * @param category 商品分类
+     * @param type 返回类型
+     * @return 商品列表
+     */
+    <T> List<T> findByCategory(String category, Class<T> type);
+    
     /**
      * 根据价格范围查找商品
      * @param minPrice 最低价格
@@ -30,6 +60,15 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
     
+    /**
+     * 根据价格范围查找商品并按投影类型返回
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param type 返回类型
+     * @return 商品列表
+     */
+    <T> List<T> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Class<T> type);
+    
     /**
      * 根据名称模糊查询
      * @param name 商品名称
@@ -43,6 +82,14 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findByStockGreaterThan(Integer stock);
     
+    /**
+     * 查找库存大于指定值的商品并按投影类型返回
+     * @param stock 库存下限（不含）
+     * @param type 返回类型
+     * @return 商品列表
+     */
+    <T> List<T> findByStockGreaterThan(Integer stock, Class<T> type);
+    
     /**
      * 根据分类和价格范围查找商品
      * @param category 分类
@@ -54,4 +101,241 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategoryAndPriceBetween(@Param("category") String category, 
                                                @Param("minPrice") BigDecimal minPrice, 
                                                @Param("maxPrice") BigDecimal maxPrice);
+    
+    /**
+     * 按ID游标分页查询商品
+     * @param afterId 上一页最后一条记录的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @param type 返回类型（实体或摘要投影）
+     * @return 商品列表
+     */
+    <T> List<T> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable, Class<T> type);
+    
+    /**
+     * 按价格升序游标分页查询商品
+     * @param afterPrice 上一页最后一条记录的价格
+     * @param afterId 上一页最后一条记录的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @return 商品列表
+     */
+    @Query("SELECT p FROM Product p WHERE p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageOrderByPriceAsc(@Param("afterPrice") BigDecimal afterPrice,
+                                          @Param("afterId") Long afterId,
+                                          Pageable pageable);
+    
+    /**
+     * 按价格降序游标分页查询商品
+     * @param afterPrice 上一页最后一条记录的价格
+     * @param afterId 上一页最后一条记录的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @return 商品列表
+     */
+    @Query("SELECT p FROM Product p WHERE p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<Product> findPageOrderByPriceDesc(@Param("afterPrice") BigDecimal afterPrice,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+    
+    /**
+     * 按分类、ID游标分页查询商品
+     * @param category 商品分类
+     * @param afterId 上一页最后一条记录的ID
+     * @param pageable 分页参数（仅使用页大小）
+     * @param type 返回类型（实体或摘要投影）
+     * @return 商品列表
+     */
+    <T> List<T> findByCategoryAndIdGreaterThanOrderByIdAsc(String category, Long afterId, Pageable pageable,
+                                                           Class<T> type);
+    
+    /**
+     * 按分类、价格升序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.category = :category " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageByCategoryOrderByPriceAsc(@Param("category") String category,
+                                                    @Param("afterPrice") BigDecimal afterPrice,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+    
+    /**
+     * 按分类、价格降序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.category = :category " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<Product> findPageByCategoryOrderByPriceDesc(@Param("category") String category,
+                                                     @Param("afterPrice") BigDecimal afterPrice,
+                                                     @Param("afterId") Long afterId,
+                                                     Pageable pageable);
+    
+    /**
+     * 按价格范围、ID游标分页查询商品
+     */
+    <T> List<T> findByPriceBetweenAndIdGreaterThanOrderByIdAsc(BigDecimal minPrice, BigDecimal maxPrice,
+                                                               Long afterId, Pageable pageable, Class<T> type);
+    
+    /**
+     * 按价格范围、价格升序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageByPriceBetweenOrderByPriceAsc(@Param("minPrice") BigDecimal minPrice,
+                                                        @Param("maxPrice") BigDecimal maxPrice,
+                                                        @Param("afterPrice") BigDecimal afterPrice,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+    
+    /**
+     * 按价格范围、价格降序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<Product> findPageByPriceBetweenOrderByPriceDesc(@Param("minPrice") BigDecimal minPrice,
+                                                         @Param("maxPrice") BigDecimal maxPrice,
+                                                         @Param("afterPrice") BigDecimal afterPrice,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+    
+    /**
+     * 按库存、ID游标分页查询商品
+     */
+    <T> List<T> findByStockGreaterThanAndIdGreaterThanOrderByIdAsc(Integer stock, Long afterId, Pageable pageable,
+                                                                   Class<T> type);
+    
+    /**
+     * 按库存、价格升序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.stock > :stock " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<Product> findPageByStockGreaterThanOrderByPriceAsc(@Param("stock") Integer stock,
+                                                            @Param("afterPrice") BigDecimal afterPrice,
+                                                            @Param("afterId") Long afterId,
+                                                            Pageable pageable);
+    
+    /**
+     * 按库存、价格降序游标分页查询商品
+     */
+    @Query("SELECT p FROM Product p WHERE p.stock > :stock " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<Product> findPageByStockGreaterThanOrderByPriceDesc(@Param("stock") Integer stock,
+                                                             @Param("afterPrice") BigDecimal afterPrice,
+                                                             @Param("afterId") Long afterId,
+                                                             Pageable pageable);
+    
+    /**
+     * 按价格升序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummary> findSummaryPageOrderByPriceAsc(@Param("afterPrice") BigDecimal afterPrice,
+                                                        @Param("afterId") Long afterId,
+                                                        Pageable pageable);
+    
+    /**
+     * 按价格降序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<ProductSummary> findSummaryPageOrderByPriceDesc(@Param("afterPrice") BigDecimal afterPrice,
+                                                         @Param("afterId") Long afterId,
+                                                         Pageable pageable);
+    
+    /**
+     * 按分类、价格升序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.category = :category " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummary> findSummaryPageByCategoryOrderByPriceAsc(@Param("category") String category,
+                                                                  @Param("afterPrice") BigDecimal afterPrice,
+                                                                  @Param("afterId") Long afterId,
+                                                                  Pageable pageable);
+    
+    /**
+     * 按分类、价格降序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.category = :category " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<ProductSummary> findSummaryPageByCategoryOrderByPriceDesc(@Param("category") String category,
+                                                                   @Param("afterPrice") BigDecimal afterPrice,
+                                                                   @Param("afterId") Long afterId,
+                                                                   Pageable pageable);
+    
+    /**
+     * 按价格范围、价格升序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummary> findSummaryPageByPriceBetweenOrderByPriceAsc(@Param("minPrice") BigDecimal minPrice,
+                                                                      @Param("maxPrice") BigDecimal maxPrice,
+                                                                      @Param("afterPrice") BigDecimal afterPrice,
+                                                                      @Param("afterId") Long afterId,
+                                                                      Pageable pageable);
+    
+    /**
+     * 按价格范围、价格降序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.price BETWEEN :minPrice AND :maxPrice " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<ProductSummary> findSummaryPageByPriceBetweenOrderByPriceDesc(@Param("minPrice") BigDecimal minPrice,
+                                                                       @Param("maxPrice") BigDecimal maxPrice,
+                                                                       @Param("afterPrice") BigDecimal afterPrice,
+                                                                       @Param("afterId") Long afterId,
+                                                                       Pageable pageable);
+    
+    /**
+     * 按库存、价格升序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.stock > :stock " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price ASC, p.id ASC")
+    List<ProductSummary> findSummaryPageByStockGreaterThanOrderByPriceAsc(@Param("stock") Integer stock,
+                                                                          @Param("afterPrice") BigDecimal afterPrice,
+                                                                          @Param("afterId") Long afterId,
+                                                                          Pageable pageable);
+    
+    /**
+     * 按库存、价格降序游标分页查询商品摘要
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.stock > :stock " +
+           "AND (p.price < :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price DESC, p.id ASC")
+    List<ProductSummary> findSummaryPageByStockGreaterThanOrderByPriceDesc(@Param("stock") Integer stock,
+                                                                           @Param("afterPrice") BigDecimal afterPrice,
+                                                                           @Param("afterId") Long afterId,
+                                                                           Pageable pageable);
+    
+    /**
+     * 条件变更库存：仅当变更后库存不为负时更新
+     * @param id 商品ID
+     * @param quantity 数量（正数为增加，负数为减少）
+     * @param updatedAt 更新时间
+     * @return 更新的行数（0表示商品不存在或库存不足）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.updatedAt = :updatedAt " +
+           "WHERE p.id = :id AND p.stock + :quantity >= 0")
+    int adjustStock(@Param("id") Long id,
+                    @Param("quantity") int quantity,
+                    @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * 按ID顺序流式读取全部商品（游标方式，固定抓取大小），需在只读事务中消费
+     * @return 商品流
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAllOrderById();
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.dumall.product.repository;
+
+import com.dumall.product.dto.ProductSort;
+import com.dumall.product.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+
+/**
+ * 商品查询条件
+ * 参数为空时返回null，由Specification.where/and忽略该条件
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> categoryEquals(String category) {
+        return category == null ? null : (root, query, cb) -> cb.equal(root.get("category"), category);
+    }
+
+    public static Specification<Product> priceAtLeast(BigDecimal minPrice) {
+        return minPrice == null ? null : (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("price"), minPrice);
+    }
+
+    public static Specification<Product> priceAtMost(BigDecimal maxPrice) {
+        return maxPrice == null ? null : (root, query, cb) -> cb.lessThanOrEqualTo(root.get("price"), maxPrice);
+    }
+
+    public static Specification<Product> inStock(boolean inStockOnly) {
+        return !inStockOnly ? null : (root, query, cb) -> cb.greaterThan(root.get("stock"), 0);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return ids == null ? null : (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    /**
+     * 游标条件：排在(afterPrice, afterId)之后的记录
+     * 价格条件写成“价格范围 AND (严格大于 OR 同价格ID更大)”，使价格索引可以直接定位起点
+     * @param sort 排序方式
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param afterId 上一页最后一条记录的ID，为空表示首页
+     */
+    public static Specification<Product> after(ProductSort sort, BigDecimal afterPrice, Long afterId) {
+        if (afterId == null) {
+            return null;
+        }
+        return switch (sort) {
+            case ID -> (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+            case PRICE_ASC -> (root, query, cb) -> cb.and(
+                    cb.greaterThanOrEqualTo(root.get("price"), afterPrice),
+                    cb.or(cb.greaterThan(root.get("price"), afterPrice), cb.greaterThan(root.get("id"), afterId)));
+            case PRICE_DESC -> (root, query, cb) -> cb.and(
+                    cb.lessThanOrEqualTo(root.get("price"), afterPrice),
+                    cb.or(cb.lessThan(root.get("price"), afterPrice), cb.greaterThan(root.get("id"), afterId)));
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.dumall.product.search;
+
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.event.ProductChangeType;
+import com.dumall.product.event.RebuildTracker;
+import com.dumall.product.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 商品名称倒排索引
+ * 启动时全量构建，之后根据商品变更事件增量维护，搜索请求不再访问数据库
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * 商品ID -> 商品快照
+     */
+    private final Map<Long, Product> documents = new ConcurrentHashMap<>();
+
+    /**
+     * 商品ID -> (词 -> 词频)，用于增量删除旧词
+     */
+    private final Map<Long, Map<String, Integer>> documentTerms = new ConcurrentHashMap<>();
+
+    /**
+     * 词 -> 商品ID集合，按词有序，末尾查询词按前缀范围扫描
+     */
+    private final ConcurrentSkipListMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>();
+
+    private final RebuildTracker rebuildTracker = new RebuildTracker(this);
+
+    /**
+     * 应用启动完成后全量构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            rebuildTracker.start();
+        }
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            documents.clear();
+            documentTerms.clear();
+            postings.clear();
+            products.forEach(this::indexProduct);
+        }
+        rebuildTracker.reload(productRepository, this::removeProduct, this::indexProduct);
+        log.info("商品搜索索引构建完成: {} 个商品, {} 个词, 耗时 {} ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 事务提交后根据商品变更增量更新索引
+     * @param event 商品变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        rebuildTracker.record(event.getProductId());
+        if (event.getType() == ProductChangeType.DELETED) {
+            remove(event.getProductId());
+        } else if (event.getProduct() != null) {
+            index(event.getProduct());
+        } else if (event.getStockDelta() != null) {
+            adjustStock(event.getProductId(), event.getStockDelta());
+        }
+    }
+
+    /**
+     * 添加或替换商品索引
+     * @param product 商品
+     */
+    public synchronized void index(Product product) {
+        removeProduct(product.getId());
+        indexProduct(product);
+    }
+
+    /**
+     * 条件库存更新不携带商品快照，按变化量更新快照中的库存（加法可交换，乱序提交也能收敛）
+     * 名称未变，倒排表无需调整
+     * @param id 商品ID
+     * @param delta 库存变化量
+     */
+    public synchronized void adjustStock(Long id, int delta) {
+        Product current = documents.get(id);
+        if (current == null) {
+            return;
+        }
+        documents.put(id, new Product(current.getId(), current.getName(), current.getDescription(),
+                current.getPrice(), current.getStock() + delta, current.getCategory(),
+                current.getImageUrl(), current.getCreatedAt(), current.getUpdatedAt()));
+    }
+
+    /**
+     * 删除商品索引
+     * @param id 商品ID
+     */
+    public synchronized void remove(Long id) {
+        removeProduct(id);
+    }
+
+    /**
+     * 搜索商品
+     * 查询词全部命中的商品才会返回，按TF-IDF得分排序，名称整体包含关键词的额外加分；
+     * 最后一个查询词按前缀匹配（边输入边搜索时末尾的词往往还没输完，如 iph 命中 iPhone）
+     * @param keyword 关键词
+     * @param limit 最大返回数量
+     * @return 按相关度排序的商品列表
+     */
+    public List<Product> search(String keyword, int limit) {
+        List<String> tokens = ProductTokenizer.tokenize(keyword);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        String prefix = tokens.get(tokens.size() - 1);
+        Map<String, Set<Long>> matches = termMatches(new LinkedHashSet<>(tokens), prefix);
+        if (matches.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Set<Long>> lists = postingLists(matches);
+
+        int totalDocuments = Math.max(documents.size(), 1);
+        String normalizedKeyword = keyword.trim().toLowerCase(Locale.ROOT);
+        List<ScoredProduct> scored = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            if (!containsAll(lists, id)) {
+                continue;
+            }
+            Product product = documents.get(id);
+            Map<String, Integer> terms = documentTerms.get(id);
+            if (product == null || terms == null) {
+                continue;
+            }
+            scored.add(new ScoredProduct(product,
+                    score(product, terms, matches, prefix, normalizedKeyword, totalDocuments)));
+        }
+
+        scored.sort(Comparator.comparingDouble(ScoredProduct::score).reversed()
+                .thenComparing(s -> s.product().getId()));
+        List<Product> result = new ArrayList<>(Math.min(limit, scored.size()));
+        for (int i = 0; i < scored.size() && i < limit; i++) {
+            result.add(scored.get(i).product());
+        }
+        return result;
+    }
+
+    /**
+     * 查询词全部命中的商品ID（不计算得分），供组合筛选下推为ID条件，匹配规则与搜索一致
+     * @param keyword 关键词
+     * @return 商品ID集合，关键词无有效查询词时返回空集合
+     */
+    public Set<Long> matchingIds(String keyword) {
+        List<String> tokens = ProductTokenizer.tokenize(keyword);
+        Map<String, Set<Long>> matches = tokens.isEmpty() ? Map.of()
+                : termMatches(new LinkedHashSet<>(tokens), tokens.get(tokens.size() - 1));
+        Set<Long> result = new HashSet<>();
+        if (matches.isEmpty()) {
+            return result;
+        }
+        List<Set<Long>> lists = postingLists(matches);
+        for (Long id : lists.get(0)) {
+            if (containsAll(lists, id)) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 当前已索引商品数量
+     */
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * 各查询词命中的商品ID：前面的词精确匹配，最后一个词取以其为前缀的所有词的倒排表并集；
+     * 任一查询词没有命中时返回空映射
+     */
+    private Map<String, Set<Long>> termMatches(Set<String> queryTerms, String prefix) {
+        Map<String, Set<Long>> matches = new HashMap<>();
+        for (String term : queryTerms) {
+            Set<Long> ids = term.equals(prefix) ? prefixPostings(prefix) : postings.get(term);
+            if (ids == null || ids.isEmpty()) {
+                return new HashMap<>();
+            }
+            matches.put(term, ids);
+        }
+        return matches;
+    }
+
+    /**
+     * 以指定前缀开头的所有词的倒排表并集（包括与前缀完全相同的词）
+     */
+    private Set<Long> prefixPostings(String prefix) {
+        NavigableMap<String, Set<Long>> range = postings.subMap(prefix, true,
+                prefix + Character.MAX_VALUE, false);
+        if (range.size() == 1) {
+            return range.firstEntry().getValue();
+        }
+        Set<Long> ids = new HashSet<>();
+        range.values().forEach(ids::addAll);
+        return ids;
+    }
+
+    /**
+     * 各查询词的倒排表，按长度升序（从最短的开始求交集）
+     */
+    private List<Set<Long>> postingLists(Map<String, Set<Long>> matches) {
+        List<Set<Long>> lists = new ArrayList<>(matches.values());
+        lists.sort(Comparator.comparingInt(Set::size));
+        return lists;
+    }
+
+    private boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double score(Product product, Map<String, Integer> terms, Map<String, Set<Long>> matches,
+                         String prefix, String normalizedKeyword, int totalDocuments) {
+        double score = 0;
+        for (Map.Entry<String, Set<Long>> match : matches.entrySet()) {
+            String term = match.getKey();
+            int documentFrequency = Math.max(match.getValue().size(), 1);
+            double idf = Math.log(1.0 + (double) totalDocuments / documentFrequency);
+            score += termFrequency(terms, term, term.equals(prefix)) * idf;
+        }
+
+        String name = product.getName().toLowerCase(Locale.ROOT);
+        if (name.equals(normalizedKeyword)) {
+            score *= 3;
+        } else if (name.startsWith(normalizedKeyword)) {
+            score *= 2;
+        } else if (name.contains(normalizedKeyword)) {
+            score *= 1.5;
+        }
+        // 名称越短，命中部分占比越高
+        return score / Math.log(2 + terms.size());
+    }
+
+    /**
+     * 商品中查询词的词频，前缀词累加所有以其开头的词的词频
+     */
+    private int termFrequency(Map<String, Integer> terms, String term, boolean prefix) {
+        if (!prefix) {
+            return terms.getOrDefault(term, 0);
+        }
+        int frequency = 0;
+        for (Map.Entry<String, Integer> entry : terms.entrySet()) {
+            if (entry.getKey().startsWith(term)) {
+                frequency += entry.getValue();
+            }
+        }
+        return frequency;
+    }
+
+    private void indexProduct(Product product) {
+        if (product == null || product.getId() == null || product.getName() == null) {
+            return;
+        }
+        Map<String, Integer> terms = new HashMap<>();
+        for (String term : ProductTokenizer.tokenizeForIndex(product.getName())) {
+            terms.merge(term, 1, Integer::sum);
+        }
+        documents.put(product.getId(), product);
+        documentTerms.put(product.getId(), terms);
+        for (String term : terms.keySet()) {
+            postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(product.getId());
+        }
+    }
+
+    private void removeProduct(Long id) {
+        if (id == null) {
+            return;
+        }
+        documents.remove(id);
+        Map<String, Integer> terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            postings.computeIfPresent(term, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private record ScoredProduct(Product product, double score) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.dumall.product.search;
+
+import com.dumall.product.dto.ProductSuggestion;
+import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.event.ProductChangeType;
+import com.dumall.product.event.RebuildTracker;
+import com.dumall.product.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 商品名称联想索引
+ * 以有序跳表保存名称中每个词起点开始的后缀（汉字逐字作为起点），前缀查询转化为一次区间扫描；
+ * 候选按热度权重、是否为整个名称的前缀、名称长度排序后取前k个
+ */
+@Slf4j
+@Component
+public class ProductSuggestIndex {
+
+    /**
+     * 后缀与商品ID之间的分隔符，保证同一后缀对应多个商品时键唯一
+     */
+    private static final char SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+
+    /**
+     * 单个后缀键的最大长度，超出部分截断以控制内存
+     */
+    private final int maxKeyLength;
+
+    /**
+     * 单次查询最多扫描的键数量，保证短前缀在大目录下的查询延迟有上界
+     */
+    private final int maxScan;
+
+    /**
+     * 归一化后缀 + 分隔符 + 商品ID -> 商品ID
+     */
+    private final ConcurrentSkipListMap<String, Long> keys = new ConcurrentSkipListMap<>();
+
+    /**
+     * 商品ID -> 名称及其全部后缀键，用于增量删除
+     */
+    private final Map<Long, SuggestEntry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 商品ID -> 热度权重
+     */
+    private final Map<Long, Double> weights = new ConcurrentHashMap<>();
+
+    private final RebuildTracker rebuildTracker = new RebuildTracker(this);
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               @Value("${product.suggest.max-key-length:32}") int maxKeyLength,
+                               @Value("${product.suggest.max-scan:2000}") int maxScan) {
+        this.productRepository = productRepository;
+        this.maxKeyLength = maxKeyLength;
+        this.maxScan = maxScan;
+    }
+
+    /**
+     * 应用启动完成后全量构建
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            rebuildTracker.start();
+        }
+        List<Product> products = productRepository.findAll();
+        synchronized (this) {
+            keys.clear();
+            entries.clear();
+            products.forEach(this::put);
+        }
+        rebuildTracker.reload(productRepository, this::remove, this::put);
+        log.info("商品联想索引构建完成: {} 个商品, {} 个键", entries.size(), keys.size());
+    }
+
+    /**
+     * 事务提交后根据商品变更增量更新（库存变更不影响名称，忽略）
+     * @param event 商品变更事件
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChange(ProductChangeEvent event) {
+        rebuildTracker.record(event.getProductId());
+        if (event.getType() == ProductChangeType.DELETED) {
+            remove(event.getProductId());
+            weights.remove(event.getProductId());
+        } else if (event.getProduct() != null) {
+            remove(event.getProductId());
+            put(event.getProduct());
+        }
+    }
+
+    /**
+     * 更新商品热度权重
+     * @param productId 商品ID
+     * @param weight 权重（越大越靠前）
+     */
+    public void updateWeight(Long productId, double weight) {
+        weights.put(productId, weight);
+    }
+
+    /**
+     * 前缀联想
+     * @param prefix 用户输入的前缀
+     * @param limit 最多返回数量
+     * @return 联想建议
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalizedPrefix = normalize(prefix);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        if (normalizedPrefix.length() > maxKeyLength) {
+            normalizedPrefix = normalizedPrefix.substring(0, maxKeyLength);
+        }
+
+        NavigableMap<String, Long> range = keys.subMap(normalizedPrefix, true,
+                normalizedPrefix + Character.MAX_VALUE, false);
+        Set<Long> candidates = new LinkedHashSet<>();
+        int scanned = 0;
+        for (Long id : range.values()) {
+            if (++scanned > maxScan) {
+                break;
+            }
+            candidates.add(id);
+        }
+
+        String fullPrefix = normalizedPrefix;
+        List<SuggestEntry> ranked = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            SuggestEntry entry = entries.get(id);
+            if (entry != null) {
+                ranked.add(entry);
+            }
+        }
+        ranked.sort(Comparator
+                .comparingDouble((SuggestEntry e) -> weights.getOrDefault(e.id(), 0.0)).reversed()
+                .thenComparing(e -> !e.normalizedName().startsWith(fullPrefix))
+                .thenComparingInt(e -> e.name().length())
+                .thenComparing(SuggestEntry::id));
+
+        List<ProductSuggestion> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(new ProductSuggestion(ranked.get(i).id(), ranked.get(i).name()));
+        }
+        return result;
+    }
+
+    private void put(Product product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        String normalizedName = normalize(product.getName());
+        List<String> productKeys = new ArrayList<>();
+        for (int start : suffixStarts(normalizedName)) {
+            String suffix = normalizedName.substring(start);
+            if (suffix.length() > maxKeyLength) {
+                suffix = suffix.substring(0, maxKeyLength);
+            }
+            String key = suffix + SEPARATOR + product.getId();
+            keys.put(key, product.getId());
+            productKeys.add(key);
+        }
+        entries.put(product.getId(), new SuggestEntry(product.getId(), product.getName(), normalizedName, productKeys));
+    }
+
+    private void remove(Long id) {
+        SuggestEntry entry = entries.remove(id);
+        if (entry != null) {
+            entry.keys().forEach(keys::remove);
+        }
+    }
+
+    /**
+     * 后缀起点：名称开头、每个词的开头、每个汉字
+     */
+    private List<Integer> suffixStarts(String name) {
+        List<Integer> starts = new ArrayList<>();
+        boolean previousIsWordChar = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean wordChar = Character.isLetterOrDigit(c);
+            if (wordChar && (!previousIsWordChar || ProductTokenizer.isCjk(c))) {
+                starts.add(i);
+            }
+            previousIsWordChar = wordChar;
+        }
+        return starts;
+    }
+
+    /**
+     * 归一化：转小写、合并连续空白
+     */
+    private String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private record SuggestEntry(Long id, String name, String normalizedName, List<String> keys) {
+    }
+}
@@ -0,0 +1,145 @@
+package com.dumall.product.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 占位图片服务
+ * 渲染结果（PNG字节）按参数缓存，缓存按总字节数淘汰；渲染在固定大小的线程池中进行，
+ * 队列满时直接拒绝，保证并发的大图请求不会耗尽内存；相同参数的并发请求只渲染一次
+ */
+@Slf4j
+@Service
+public class PlaceholderImageService {
+
+    private final AsyncCache<PlaceholderKey, PlaceholderImage> cache;
+    private final ThreadPoolExecutor renderPool;
+    private final long renderTimeoutMillis;
+
+    public PlaceholderImageService(MeterRegistry meterRegistry,
+                                   @Value("${product.placeholder.cache-max-bytes:67108864}") long cacheMaxBytes,
+                                   @Value("${product.placeholder.render-threads:2}") int renderThreads,
+                                   @Value("${product.placeholder.render-queue:32}") int renderQueue,
+                                   @Value("${product.placeholder.render-timeout-millis:5000}") long renderTimeoutMillis) {
+        this.renderTimeoutMillis = renderTimeoutMillis;
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.renderPool = new ThreadPoolExecutor(renderThreads, renderThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(renderQueue),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "placeholder-render-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.cache = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumWeight(cacheMaxBytes)
+                .weigher((PlaceholderKey key, PlaceholderImage image) -> image.data().length)
+                .recordStats()
+                .buildAsync(), "placeholders");
+    }
+
+    /**
+     * 获取占位图片，命中缓存时不再渲染
+     * @param key 图片参数
+     * @return PNG图片及其ETag
+     * @throws java.util.concurrent.RejectedExecutionException 渲染队列已满
+     * @throws TimeoutException 渲染超时
+     */
+    public PlaceholderImage getPlaceholder(PlaceholderKey key) throws TimeoutException {
+        CompletableFuture<PlaceholderImage> future =
+                cache.get(key, (k, executor) -> CompletableFuture.supplyAsync(() -> render(k), renderPool));
+        try {
+            return future.get(renderTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("渲染占位图片被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("渲染占位图片失败", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    private PlaceholderImage render(PlaceholderKey key) {
+        int width = key.width();
+        int height = key.height();
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // 设置背景色
+        g2d.setColor(Color.decode("#" + key.bgColor()));
+        g2d.fillRect(0, 0, width, height);
+
+        // 绘制简单的几何图形作为占位符
+        g2d.setColor(Color.decode("#" + key.textColor()));
+        g2d.setStroke(new BasicStroke(3));
+
+        // 绘制边框
+        g2d.drawRect(10, 10, width - 20, height - 20);
+
+        // 绘制对角线
+        g2d.drawLine(10, 10, width - 10, height - 10);
+        g2d.drawLine(width - 10, 10, 10, height - 10);
+
+        // 绘制中心圆
+        int centerX = width / 2;
+        int centerY = height / 2;
+        int radius = Math.min(width, height) / 4;
+        g2d.drawOval(centerX - radius, centerY - radius, radius * 2, radius * 2);
+
+        g2d.dispose();
+
+        // 转换为字节数组
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "PNG", baos);
+            byte[] data = baos.toByteArray();
+            log.debug("渲染占位图片: {}x{}, {} bytes", width, height, data.length);
+            return new PlaceholderImage(data, "\"" + DigestUtils.md5DigestAsHex(data) + "\"");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 占位图片参数（颜色为小写十六进制，不含#）
+     * 渲染结果只取决于尺寸和颜色，文字不参与渲染，因此不计入缓存键
+     */
+    public record PlaceholderKey(int width, int height, String bgColor, String textColor) {
+    }
+
+    /**
+     * 渲染好的占位图片
+     */
+    public record PlaceholderImage(byte[] data, String etag) {
+    }
+}
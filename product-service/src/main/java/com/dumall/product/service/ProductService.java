@@ -1,15 +1,53 @@
 package com.dumall.product.service;
 
 import com.dumall.common.exception.BusinessException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dumall.product.config.CacheConfig;
+import com.dumall.product.dto.CursorPage;
+import com.dumall.product.dto.ProductBatchResponse;
+import com.dumall.product.dto.ProductFacets;
+import com.dumall.product.dto.ProductFilter;
+import com.dumall.product.dto.ProductSort;
+import com.dumall.product.dto.ProductSuggestion;
+import com.dumall.product.dto.ProductSummary;
+import com.dumall.product.dto.StockAdjustment;
 import com.dumall.product.entity.Product;
+import com.dumall.product.event.ProductChangeEvent;
+import com.dumall.product.facet.ProductFacetIndex;
+import com.dumall.product.popularity.ProductPopularityTracker;
 import com.dumall.product.repository.ProductRepository;
+import com.dumall.product.repository.ProductSpecifications;
+import com.dumall.product.search.ProductSearchIndex;
+import com.dumall.product.search.ProductSuggestIndex;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * 商品服务类
@@ -20,6 +58,37 @@ import java.util.List;
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductPopularityTracker productPopularityTracker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    
+    @Value("${product.search.max-limit:100}")
+    private int searchMaxLimit;
+    
+    @Value("${product.suggest.max-limit:20}")
+    private int suggestMaxLimit;
+    
+    @Value("${product.page.max-limit:100}")
+    private int pageMaxLimit;
+    
+    @Value("${product.batch.max-ids:200}")
+    private int batchMaxIds;
+    
+    @Value("${product.export.flush-rows:500}")
+    private int exportFlushRows;
+    
+    @Value("${product.filter.max-keyword-matches:5000}")
+    private int filterMaxKeywordMatches;
+    
+    /**
+     * 价格降序首页的游标哨兵值（大于任何合法价格）
+     */
+    private static final BigDecimal MAX_PRICE_CURSOR = new BigDecimal("10000000000");
     
     /**
      * 获取所有商品
@@ -31,16 +100,92 @@ public class ProductService {
     }
     
     /**
-     * 根据ID获取商品
+     * 以NDJSON格式流式导出全部商品（每行一个商品JSON）
+     * 通过数据库游标逐行读取，写出后立即从持久化上下文分离，内存占用与商品总数无关
+     * @param out 输出流
+     * @return 导出的商品数量
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(OutputStream out) {
+        log.info("流式导出商品");
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllOrderById()) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                out.write(objectMapper.writeValueAsBytes(product));
+                out.write('\n');
+                entityManager.detach(product);
+                if (++count % exportFlushRows == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("导出商品失败", e);
+        }
+        log.info("流式导出商品完成: {} 个", count);
+        return count;
+    }
+    
+    /**
+     * 根据ID获取商品（读穿缓存，写操作提交后由ProductCacheInvalidator失效）
      * @param id 商品ID
      * @return 商品对象
      */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
     public Product getProductById(Long id) {
         log.info("根据ID获取商品: {}", id);
         return productRepository.findById(id)
                 .orElseThrow(() -> new BusinessException("商品不存在"));
     }
     
+    /**
+     * 批量获取商品
+     * 优先读取商品缓存，未命中的ID合并为一次findAllById查询并回填缓存
+     * @param ids 商品ID列表
+     * @return 按请求顺序排列的商品及不存在的ID
+     */
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        uniqueIds.remove(null);
+        log.info("批量获取商品: {} 个", uniqueIds.size());
+        if (uniqueIds.size() > batchMaxIds) {
+            throw new BusinessException(400, "单次最多查询" + batchMaxIds + "个商品");
+        }
+        
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Map<Long, Product> found = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Product cached = cache == null ? null : cache.get(id, Product.class);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        
+        if (!uncachedIds.isEmpty()) {
+            for (Product product : productRepository.findAllById(uncachedIds)) {
+                found.put(product.getId(), product);
+                if (cache != null) {
+                    cache.put(product.getId(), product);
+                }
+            }
+        }
+        
+        List<Product> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missingIds);
+    }
+    
     /**
      * 创建商品
      * @param product 商品信息
@@ -49,7 +194,9 @@ public class ProductService {
     @Transactional
     public Product createProduct(Product product) {
         log.info("创建商品: {}", product.getName());
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        publishChange(ProductChangeEvent.created(savedProduct));
+        return savedProduct;
     }
     
     /**
@@ -63,6 +210,7 @@ public class ProductService {
         log.info("更新商品: {}", id);
         
         Product existingProduct = getProductById(id);
+        String previousCategory = existingProduct.getCategory();
         
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
@@ -71,7 +219,9 @@ public class ProductService {
         existingProduct.setCategory(product.getCategory());
         existingProduct.setImageUrl(product.getImageUrl());
         
-        return productRepository.save(existingProduct);
+        Product savedProduct = productRepository.save(existingProduct);
+        publishChange(ProductChangeEvent.updated(savedProduct, previousCategory));
+        return savedProduct;
     }
     
     /**
@@ -82,18 +232,19 @@ public class ProductService {
     public void deleteProduct(Long id) {
         log.info("删除商品: {}", id);
         
-        if (!productRepository.existsById(id)) {
-            throw new BusinessException("商品不存在");
-        }
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("商品不存在"));
         
-        productRepository.deleteById(id);
+        productRepository.delete(product);
+        publishChange(ProductChangeEvent.deleted(id, product.getCategory()));
     }
     
     /**
-     * 根据分类获取商品
+     * 根据分类获取商品（读穿缓存）
      * @param category 商品分类
      * @return 商品列表
      */
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#category")
     public List<Product> getProductsByCategory(String category) {
         log.info("根据分类获取商品: {}", category);
         return productRepository.findByCategory(category);
@@ -111,13 +262,59 @@ public class ProductService {
     }
     
     /**
-     * 搜索商品
+     * 搜索商品（基于内存倒排索引，按相关度排序）
      * @param keyword 关键词
+     * @param limit 最大返回数量
      * @return 商品列表
      */
-    public List<Product> searchProducts(String keyword) {
-        log.info("搜索商品: {}", keyword);
-        return productRepository.findByNameContainingIgnoreCase(keyword);
+    public List<Product> searchProducts(String keyword, int limit) {
+        log.info("搜索商品: {} (limit={})", keyword, limit);
+        if (limit <= 0) {
+            throw new BusinessException(400, "返回数量必须大于0");
+        }
+        return productSearchIndex.search(keyword, Math.min(limit, searchMaxLimit));
+    }
+    
+    /**
+     * 获取热门商品（按浏览热度降序），数量不超过单次批量查询上限
+     * @param limit 最大返回数量
+     * @return 商品列表
+     */
+    public List<Product> getHotProducts(int limit) {
+        log.info("获取热门商品: limit={}", limit);
+        if (limit <= 0) {
+            throw new BusinessException(400, "返回数量必须大于0");
+        }
+        List<Long> ids = productPopularityTracker.topProductIds(Math.min(limit, batchMaxIds));
+        return getProductsByIds(ids).getProducts();
+    }
+    
+    /**
+     * 商品名称联想（基于内存有序索引）
+     * @param prefix 输入前缀
+     * @param limit 最大返回数量
+     * @return 联想建议
+     */
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        log.debug("商品名称联想: {} (limit={})", prefix, limit);
+        if (limit <= 0) {
+            throw new BusinessException(400, "返回数量必须大于0");
+        }
+        return productSuggestIndex.suggest(prefix, Math.min(limit, suggestMaxLimit));
+    }
+    
+    /**
+     * 获取分面统计（分类计数与价格区间直方图），由内存统计索引计算
+     * @param category 分类条件（可选）
+     * @param minPrice 最低价格（可选）
+     * @param maxPrice 最高价格（可选）
+     * @param inStockOnly 是否只统计有库存商品
+     * @return 分面统计
+     */
+    public ProductFacets getProductFacets(String category, BigDecimal minPrice, BigDecimal maxPrice,
+                                          boolean inStockOnly) {
+        log.info("获取商品分面统计: category={}, price={} - {}, inStock={}", category, minPrice, maxPrice, inStockOnly);
+        return productFacetIndex.facets(category, minPrice, maxPrice, inStockOnly);
     }
     
     /**
@@ -129,8 +326,335 @@ public class ProductService {
         return productRepository.findByStockGreaterThan(0);
     }
     
+    /**
+     * 获取所有商品摘要（只查询摘要列）
+     * @return 商品摘要列表
+     */
+    public List<ProductSummary> getProductSummaries() {
+        log.info("获取所有商品摘要");
+        return productRepository.findAllProjectedBy(ProductSummary.class);
+    }
+    
+    /**
+     * 根据分类获取商品摘要
+     * @param category 商品分类
+     * @return 商品摘要列表
+     */
+    public List<ProductSummary> getProductSummariesByCategory(String category) {
+        log.info("根据分类获取商品摘要: {}", category);
+        return productRepository.findByCategory(category, ProductSummary.class);
+    }
+    
+    /**
+     * 根据价格范围获取商品摘要
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @return 商品摘要列表
+     */
+    public List<ProductSummary> getProductSummariesByPriceRange(BigDecimal minPrice, BigDecimal maxPrice) {
+        log.info("根据价格范围获取商品摘要: {} - {}", minPrice, maxPrice);
+        return productRepository.findByPriceBetween(minPrice, maxPrice, ProductSummary.class);
+    }
+    
+    /**
+     * 获取有库存的商品摘要
+     * @return 商品摘要列表
+     */
+    public List<ProductSummary> getAvailableProductSummaries() {
+        log.info("获取有库存的商品摘要");
+        return productRepository.findByStockGreaterThan(0, ProductSummary.class);
+    }
+    
+    /**
+     * 游标分页获取商品
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<Product> getProductPage(Long after, BigDecimal afterPrice, int limit, ProductSort sort) {
+        log.info("游标分页获取商品: after={}, afterPrice={}, limit={}, sort={}", after, afterPrice, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<Product> rows = switch (sort) {
+            case ID -> productRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageable, Product.class);
+            case PRICE_ASC -> productRepository.findPageOrderByPriceAsc(
+                    afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findPageOrderByPriceDesc(
+                    afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, Product::getId, Product::getPrice);
+    }
+    
+    /**
+     * 按分类游标分页获取商品
+     * @param category 商品分类
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<Product> getProductPageByCategory(String category, Long after, BigDecimal afterPrice,
+                                                        int limit, ProductSort sort) {
+        log.info("按分类游标分页获取商品: {}, after={}, limit={}, sort={}", category, after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<Product> rows = switch (sort) {
+            case ID -> productRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(
+                    category, afterId, pageable, Product.class);
+            case PRICE_ASC -> productRepository.findPageByCategoryOrderByPriceAsc(
+                    category, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findPageByCategoryOrderByPriceDesc(
+                    category, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, Product::getId, Product::getPrice);
+    }
+    
+    /**
+     * 按价格范围游标分页获取商品
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<Product> getProductPageByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Long after,
+                                                          BigDecimal afterPrice, int limit, ProductSort sort) {
+        log.info("按价格范围游标分页获取商品: {} - {}, after={}, limit={}, sort={}",
+                minPrice, maxPrice, after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<Product> rows = switch (sort) {
+            case ID -> productRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(
+                    minPrice, maxPrice, afterId, pageable, Product.class);
+            case PRICE_ASC -> productRepository.findPageByPriceBetweenOrderByPriceAsc(
+                    minPrice, maxPrice, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findPageByPriceBetweenOrderByPriceDesc(
+                    minPrice, maxPrice, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, Product::getId, Product::getPrice);
+    }
+    
+    /**
+     * 游标分页获取有库存的商品
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<Product> getAvailableProductPage(Long after, BigDecimal afterPrice, int limit, ProductSort sort) {
+        log.info("游标分页获取有库存的商品: after={}, limit={}, sort={}", after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<Product> rows = switch (sort) {
+            case ID -> productRepository.findByStockGreaterThanAndIdGreaterThanOrderByIdAsc(
+                    0, afterId, pageable, Product.class);
+            case PRICE_ASC -> productRepository.findPageByStockGreaterThanOrderByPriceAsc(
+                    0, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findPageByStockGreaterThanOrderByPriceDesc(
+                    0, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, Product::getId, Product::getPrice);
+    }
+    
+    /**
+     * 游标分页获取商品摘要
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<ProductSummary> getProductSummaryPage(Long after, BigDecimal afterPrice, int limit,
+                                                            ProductSort sort) {
+        log.info("游标分页获取商品摘要: after={}, afterPrice={}, limit={}, sort={}", after, afterPrice, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<ProductSummary> rows = switch (sort) {
+            case ID -> productRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageable, ProductSummary.class);
+            case PRICE_ASC -> productRepository.findSummaryPageOrderByPriceAsc(
+                    afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findSummaryPageOrderByPriceDesc(
+                    afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, ProductSummary::getId, ProductSummary::getPrice);
+    }
+    
+    /**
+     * 按分类游标分页获取商品摘要
+     * @param category 商品分类
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<ProductSummary> getProductSummaryPageByCategory(String category, Long after,
+                                                                      BigDecimal afterPrice, int limit,
+                                                                      ProductSort sort) {
+        log.info("按分类游标分页获取商品摘要: {}, after={}, limit={}, sort={}", category, after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<ProductSummary> rows = switch (sort) {
+            case ID -> productRepository.findByCategoryAndIdGreaterThanOrderByIdAsc(
+                    category, afterId, pageable, ProductSummary.class);
+            case PRICE_ASC -> productRepository.findSummaryPageByCategoryOrderByPriceAsc(
+                    category, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findSummaryPageByCategoryOrderByPriceDesc(
+                    category, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, ProductSummary::getId, ProductSummary::getPrice);
+    }
+    
+    /**
+     * 按价格范围游标分页获取商品摘要
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<ProductSummary> getProductSummaryPageByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                        Long after, BigDecimal afterPrice,
+                                                                        int limit, ProductSort sort) {
+        log.info("按价格范围游标分页获取商品摘要: {} - {}, after={}, limit={}, sort={}",
+                minPrice, maxPrice, after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<ProductSummary> rows = switch (sort) {
+            case ID -> productRepository.findByPriceBetweenAndIdGreaterThanOrderByIdAsc(
+                    minPrice, maxPrice, afterId, pageable, ProductSummary.class);
+            case PRICE_ASC -> productRepository.findSummaryPageByPriceBetweenOrderByPriceAsc(
+                    minPrice, maxPrice, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findSummaryPageByPriceBetweenOrderByPriceDesc(
+                    minPrice, maxPrice, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, ProductSummary::getId, ProductSummary::getPrice);
+    }
+    
+    /**
+     * 游标分页获取有库存的商品摘要
+     * @param after 上一页最后一条记录的ID
+     * @param afterPrice 上一页最后一条记录的价格（按价格排序时使用）
+     * @param limit 页大小
+     * @param sort 排序方式
+     * @return 分页结果
+     */
+    public CursorPage<ProductSummary> getAvailableProductSummaryPage(Long after, BigDecimal afterPrice, int limit,
+                                                                     ProductSort sort) {
+        log.info("游标分页获取有库存的商品摘要: after={}, limit={}, sort={}", after, limit, sort);
+        Pageable pageable = pageRequest(limit);
+        Long afterId = afterId(after);
+        List<ProductSummary> rows = switch (sort) {
+            case ID -> productRepository.findByStockGreaterThanAndIdGreaterThanOrderByIdAsc(
+                    0, afterId, pageable, ProductSummary.class);
+            case PRICE_ASC -> productRepository.findSummaryPageByStockGreaterThanOrderByPriceAsc(
+                    0, afterPrice(afterPrice, sort), afterId, pageable);
+            case PRICE_DESC -> productRepository.findSummaryPageByStockGreaterThanOrderByPriceDesc(
+                    0, afterPrice(afterPrice, sort), afterId, pageable);
+        };
+        return toPage(rows, pageable.getPageSize() - 1, sort, ProductSummary::getId, ProductSummary::getPrice);
+    }
+    
+    /**
+     * 组合条件筛选商品（游标分页）
+     * 分类、价格范围、库存、关键词、游标、排序和页大小下推到同一条查询；
+     * 关键词先由内存倒排索引解析为商品ID集合，再作为ID条件参与查询
+     * @param filter 筛选条件
+     * @param type 返回类型：Product或ProductSummary
+     * @return 分页结果
+     */
+    public <T> CursorPage<T> filterProducts(ProductFilter filter, Class<T> type) {
+        log.info("组合条件筛选商品: {}", filter);
+        ProductSort sort = filter.getSort() == null ? ProductSort.ID : filter.getSort();
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new BusinessException(400, "最低价格不能大于最高价格");
+        }
+        if (sort != ProductSort.ID && filter.getAfter() != null && filter.getAfterPrice() == null) {
+            throw new BusinessException(400, "按价格排序翻页时必须提供afterPrice");
+        }
+        int limit = pageRequest(filter.getLimit() == null ? 20 : filter.getLimit()).getPageSize() - 1;
+        
+        Set<Long> keywordIds = null;
+        if (filter.getKeyword() != null && !filter.getKeyword().isBlank()) {
+            keywordIds = productSearchIndex.matchingIds(filter.getKeyword());
+            if (keywordIds.isEmpty()) {
+                return new CursorPage<>(new ArrayList<>(), limit, false, null, null);
+            }
+            if (keywordIds.size() > filterMaxKeywordMatches) {
+                throw new BusinessException(400, "关键词匹配的商品过多，请补充更具体的关键词");
+            }
+        }
+        
+        Specification<Product> spec = Specification
+                .where(ProductSpecifications.categoryEquals(filter.getCategory()))
+                .and(ProductSpecifications.priceAtLeast(filter.getMinPrice()))
+                .and(ProductSpecifications.priceAtMost(filter.getMaxPrice()))
+                .and(ProductSpecifications.inStock(Boolean.TRUE.equals(filter.getInStock())))
+                .and(ProductSpecifications.idIn(keywordIds))
+                .and(ProductSpecifications.after(sort, filter.getAfterPrice(), filter.getAfter()));
+        
+        List<T> rows = productRepository.findTop(spec, filterSort(sort, filter.getCategory() != null), limit + 1, type);
+        return type == ProductSummary.class
+                ? toPage(rows, limit, sort, row -> ((ProductSummary) row).getId(), row -> ((ProductSummary) row).getPrice())
+                : toPage(rows, limit, sort, row -> ((Product) row).getId(), row -> ((Product) row).getPrice());
+    }
+    
+    /**
+     * 筛选排序；按分类筛选时把分类列放在排序首位（分类相同，不影响结果），
+     * 使排序与(category, price, id)/(category, id)索引的列顺序一致，数据库可以直接按索引顺序读取前N条
+     */
+    private Sort filterSort(ProductSort sort, boolean byCategory) {
+        Sort order = switch (sort) {
+            case ID -> Sort.by(Sort.Order.asc("id"));
+            case PRICE_ASC -> Sort.by(Sort.Order.asc("price"), Sort.Order.asc("id"));
+            case PRICE_DESC -> Sort.by(Sort.Order.desc("price"), Sort.Order.asc("id"));
+        };
+        return byCategory ? Sort.by(Sort.Order.asc("category")).and(order) : order;
+    }
+    
+    /**
+     * 多取一条记录用于判断是否还有下一页
+     */
+    private Pageable pageRequest(int limit) {
+        if (limit <= 0) {
+            throw new BusinessException(400, "页大小必须大于0");
+        }
+        return PageRequest.of(0, Math.min(limit, pageMaxLimit) + 1);
+    }
+    
+    private Long afterId(Long after) {
+        return after == null ? 0L : after;
+    }
+    
+    private BigDecimal afterPrice(BigDecimal afterPrice, ProductSort sort) {
+        if (afterPrice != null) {
+            return afterPrice;
+        }
+        return sort == ProductSort.PRICE_DESC ? MAX_PRICE_CURSOR : BigDecimal.ZERO;
+    }
+    
+    private <T> CursorPage<T> toPage(List<T> rows, int limit, ProductSort sort,
+                                     Function<T, Long> idOf, Function<T, BigDecimal> priceOf) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        T last = items.isEmpty() ? null : items.get(items.size() - 1);
+        return new CursorPage<>(items, limit, hasMore,
+                last == null ? null : idOf.apply(last),
+                last == null || sort == ProductSort.ID ? null : priceOf.apply(last));
+    }
+    
     /**
      * 更新商品库存
+     * 通过条件UPDATE原子地变更库存，并发扣减不会超卖
      * @param id 商品ID
      * @param quantity 数量（正数为增加，负数为减少）
      * @return 更新后的商品
@@ -139,14 +663,64 @@ public class ProductService {
     public Product updateStock(Long id, Integer quantity) {
         log.info("更新商品库存: {} - {}", id, quantity);
         
-        Product product = getProductById(id);
-        int newStock = product.getStock() + quantity;
-        
-        if (newStock < 0) {
+        if (!tryAdjustStock(id, quantity)) {
+            if (!productRepository.existsById(id)) {
+                throw new BusinessException("商品不存在");
+            }
             throw new BusinessException("库存不足");
         }
         
-        product.setStock(newStock);
-        return productRepository.save(product);
+        return productRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("商品不存在"));
+    }
+    
+    /**
+     * 条件变更商品库存，不加载实体
+     * @param id 商品ID
+     * @param quantity 数量（正数为增加，负数为减少）
+     * @return 是否成功（商品不存在或库存不足时返回false）
+     */
+    @Transactional
+    public boolean tryAdjustStock(Long id, int quantity) {
+        log.info("条件变更商品库存: {} - {}", id, quantity);
+        
+        int updated = productRepository.adjustStock(id, quantity, LocalDateTime.now());
+        if (updated == 0) {
+            return false;
+        }
+        publishChange(ProductChangeEvent.stockChanged(id, quantity));
+        return true;
+    }
+    
+    /**
+     * 批量变更商品库存（同一事务内全部成功或全部回滚）
+     * 同一商品的多个变化量先合并，再按商品ID升序更新，保证并发批次的加锁顺序一致
+     * @param adjustments 库存变化项
+     * @return 变更的商品数量
+     */
+    @Transactional
+    public int adjustStockBatch(List<StockAdjustment> adjustments) {
+        log.info("批量变更商品库存: {} 项", adjustments.size());
+        
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (StockAdjustment adjustment : adjustments) {
+            deltas.merge(adjustment.getProductId(), adjustment.getQuantity(), Integer::sum);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            if (productRepository.adjustStock(entry.getKey(), entry.getValue(), now) == 0) {
+                throw new BusinessException("商品不存在或库存不足: " + entry.getKey());
+            }
+            publishChange(ProductChangeEvent.stockChanged(entry.getKey(), entry.getValue()));
+        }
+        return deltas.size();
+    }
+    
+    /**
+     * 发布商品变更事件，由监听方在事务提交后处理
+     */
+    private void publishChange(ProductChangeEvent event) {
+        eventPublisher.publishEvent(event);
     }
 }
\ No newline at end of file